@@ -16,6 +16,42 @@ repositories {
     mavenCentral()
 }
 
+// The Vector API kernels are compiled separately, since they need the incubating module which the rest of the library
+// must not depend on. They are packed into the same jar and loaded only when the module is resolved at runtime.
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+// The lookup tables are generated at build time by a separate program, which is never packed into the jar, so that
+// the library only unpacks them from string constants when a path first needs them.
+val generator: SourceSet by sourceSets.creating
+
+val generateTables by tasks.registering(JavaExec::class) {
+    description = "Generates the lookup tables of the encoder and the decoder."
+
+    val outputDirectory = layout.buildDirectory.dir("generated/sources/tables/java/main")
+    outputs.dir(outputDirectory)
+    classpath = generator.runtimeClasspath
+    mainClass.set("net.eewbot.base65536j.TableGenerator")
+    argumentProviders.add(CommandLineArgumentProvider { listOf(outputDirectory.get().asFile.path) })
+}
+
+sourceSets {
+    main {
+        java.srcDir(generateTables)
+    }
+
+    test {
+        runtimeClasspath += vector.output
+    }
+
+    named("jmh") {
+        runtimeClasspath += vector.output
+    }
+}
+
+val vectorModuleArgs = listOf("--add-modules", "jdk.incubator.vector")
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:6.1.2"))
     testImplementation("org.junit.jupiter:junit-jupiter:6.1.2")
@@ -40,8 +76,17 @@ tasks {
         withJavadocJar()
     }
 
+    named<JavaCompile>("compileVectorJava") {
+        options.compilerArgs.addAll(vectorModuleArgs)
+    }
+
     jar {
         dependsOn("includeReadmeAndLicense")
+        from(vector.output)
+    }
+
+    named<Jar>("sourcesJar") {
+        from(vector.allSource)
     }
 
     javadoc {
@@ -58,6 +103,7 @@ tasks {
 
     test {
         useJUnitPlatform()
+        jvmArgs(vectorModuleArgs)
     }
 
     jmh {
@@ -69,10 +115,97 @@ tasks {
         timeOnIteration = "5s"
         fork = 5
 
+        jvmArgsAppend.addAll(vectorModuleArgs)
+        excludes.add(".*ColdStartBenchmark.*")
         forceGC = true
+        profilers.add("gc")
         resultFormat = "JSON"
         failOnError = true
     }
+
+    // Compares the scores of the last JMH run with a stored baseline, failing the build when a benchmark got slower
+    // by more than the tolerance. The tolerance is a fraction, 0.1 by default, and can be set with
+    // -PjmhTolerance=0.2. Baselines only mean something on the machine they were taken on, so the check is skipped
+    // when there is none; store one with the jmhSaveBaseline task.
+    val jmhBaseline = layout.projectDirectory.file("src/jmh/baseline.json")
+    val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+
+    register("jmhCompareBaseline") {
+        group = "benchmark"
+        description = "Fails if the last JMH results regressed against src/jmh/baseline.json."
+
+        inputs.files(jmhResults).optional()
+        onlyIf { jmhBaseline.asFile.exists() && jmhResults.get().asFile.exists() }
+
+        doLast {
+            val tolerance = (findProperty("jmhTolerance") as String?)?.toDouble() ?: 0.1
+
+            @Suppress("UNCHECKED_CAST")
+            fun scores(file: File): Map<String, Pair<String, Double>> =
+                (groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>).associate { result ->
+                    val params = (result["params"] as Map<String, Any?>?).orEmpty().toSortedMap()
+                    val metric = result["primaryMetric"] as Map<String, Any?>
+                    "${result["benchmark"]}$params" to (result["mode"] as String to (metric["score"] as Number).toDouble())
+                }
+
+            val baseline = scores(jmhBaseline.asFile)
+            val regressions = scores(jmhResults.get().asFile).mapNotNull { (name, result) ->
+                val (mode, score) = result
+                val base = baseline[name]?.second ?: return@mapNotNull null
+                // Throughput is better when higher; every other mode measures time, which is better when lower.
+                val change = if (mode == "thrpt") (base - score) / base else (score - base) / base
+                if (change > tolerance) "$name: $base -> $score (${"%.1f".format(change * 100)}% worse)" else null
+            }
+
+            if (regressions.isNotEmpty()) {
+                throw GradleException("JMH regressions beyond ${tolerance * 100}%:\n" + regressions.joinToString("\n"))
+            }
+        }
+    }
+
+    register<Copy>("jmhSaveBaseline") {
+        group = "benchmark"
+        description = "Stores the last JMH results as src/jmh/baseline.json."
+
+        from(jmhResults)
+        into(jmhBaseline.asFile.parentFile)
+        rename { jmhBaseline.asFile.name }
+    }
+
+    named("jmh") {
+        finalizedBy("jmhCompareBaseline")
+    }
+
+    // Runs the SingleShotTime benchmarks of the time to the first encode and decode, whose iteration and fork settings
+    // come from their annotations rather than from the jmh task. To measure with an AppCDS archive, create one with
+    // jmhColdStartArchive and pass it with -PjmhSharedArchive=build/cds/cold-start.jsa.
+    val jmhJar = named<Jar>("jmhJar")
+    val coldStartArchive = layout.buildDirectory.file("cds/cold-start.jsa")
+
+    register<JavaExec>("jmhColdStart") {
+        group = "benchmark"
+        description = "Measures the time to the first encode and decode in fresh JVMs."
+
+        classpath(jmhJar)
+        mainClass.set("org.openjdk.jmh.Main")
+        args(".*ColdStartBenchmark.*", "-rf", "JSON")
+        args("-rff", layout.buildDirectory.file("results/jmh/cold-start.json").get().asFile.path)
+        (findProperty("jmhSharedArchive") as String?)?.let {
+            args("-jvmArgsAppend", "-XX:SharedArchiveFile=${file(it)}")
+        }
+    }
+
+    register<JavaExec>("jmhColdStartArchive") {
+        group = "benchmark"
+        description = "Creates an AppCDS archive of the classes loaded by a cold start benchmark fork."
+
+        classpath(jmhJar)
+        mainClass.set("org.openjdk.jmh.Main")
+        outputs.file(coldStartArchive)
+        doFirst { coldStartArchive.get().asFile.parentFile.mkdirs() }
+        args(".*ColdStartBenchmark.firstRoundTrip", "-f", "1")
+        args("-jvmArgsAppend", "-XX:ArchiveClassesAtExit=${coldStartArchive.get().asFile}")
+    }
 }
 
 publishing {
@@ -0,0 +1,204 @@
+package net.eewbot.base65536j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Generates {@code Base65536Tables}, the lookup tables of the encoder and the decoder, into the source directory given
+ * as the only argument. It runs at build time, so the library only unpacks the tables from string constants instead of
+ * computing them when its classes are initialized.<br>
+ * Java has no constant arrays: an array initializer compiles into code storing every element one by one, which runs
+ * in the interpreter when the class is initialized. A string literal is a single constant, which is also kept in a CDS
+ * archive, so the tables are written as strings of chars and unpacked by a short loop.
+ */
+public final class TableGenerator {
+    private TableGenerator() {}
+
+    /**
+     * The code block of the padding code point, which encodes a trailing odd byte.
+     */
+    private static final int PAD = 0x1500;
+
+    /**
+     * The ranges of the 256 code blocks of the original Base65536 implementation, first and last block of each range.
+     * The N-th block encodes the byte pairs whose second byte is N.
+     */
+    private static final int[][] CODE_BLOCK_RANGES = {
+        {0x3400, 0x4c00},
+        {0x4e00, 0x9e00},
+        {0xa100, 0xa300},
+        {0xa500, 0xa500},
+        {0x10600, 0x10600},
+        {0x12000, 0x12200},
+        {0x13000, 0x13300},
+        {0x14400, 0x14500},
+        {0x16800, 0x16900},
+        {0x20000, 0x28500}
+    };
+
+    /**
+     * The values of Base65536Decoder.INVALID and Base65536Decoder.PADDING, which the decoder table holds for unknown
+     * blocks and the padding block.
+     */
+    private static final int INVALID = -1;
+    private static final int PADDING = 0x100;
+
+    private static final int CHARS_PER_LINE = 16;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) throw new IllegalArgumentException("Usage: TableGenerator <source directory>");
+
+        int[] codes = codes();
+        int firstSupplementaryIndex = codes.length;
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                firstSupplementaryIndex = i;
+                break;
+            }
+        }
+
+        char[] codeChars = new char[codes.length];
+        for (int i = 0; i < codes.length; i++) codeChars[i] = (char) (codes[i] >>> 8);
+
+        char[] prefixChars = new char[codes.length * 2];
+        for (int i = 0; i < codes.length; i++) {
+            int prefix = utf8Prefix(codes[i]);
+            prefixChars[i * 2] = (char) (prefix >>> 16);
+            prefixChars[i * 2 + 1] = (char) prefix;
+        }
+
+        // Every value is stored plus one, so that INVALID is the char 0.
+        char[] leastByteChars = new char[(codes[codes.length - 1] >>> 8) + 1];
+        Arrays.fill(leastByteChars, (char) (INVALID + 1));
+        for (int i = 0; i < codes.length; i++) leastByteChars[codes[i] >>> 8] = (char) (i + 1);
+        leastByteChars[PAD >>> 8] = (char) (PADDING + 1);
+
+        String source = """
+            // Generated at build time by TableGenerator. Do not edit.
+            package net.eewbot.base65536j;
+
+            /**
+             * The lookup tables of the {@link Base65536} encoding scheme.<br>
+             * Each table is held by its own class, which is initialized the first time a path using the table runs, so
+             * encoding into chars doesn't unpack the UTF-8 table and encoding doesn't unpack the decoder table.
+             */
+            final class Base65536Tables {
+                private Base65536Tables() {}
+
+                /**
+                 * The code point encoding a trailing odd byte of zero. The odd byte is added to it.
+                 */
+                static final int PAD = %s;
+
+                /**
+                 * The UTF-8 bytes of {@link #PAD} that don't depend on the odd byte, laid out as in
+                 * {@link Utf8Prefixes#TABLE}.
+                 */
+                static final int PAD_UTF8_PREFIX = %s;
+
+                /**
+                 * The first index of {@link Codes#TABLE} whose code block is out of the Basic Multilingual Plane, that is,
+                 * whose code points take four bytes in UTF-8 instead of three.
+                 */
+                static final int FIRST_SUPPLEMENTARY_INDEX = %d;
+
+                /**
+                 * Holds the first code point of the code block encoding each least byte. The most byte is added to it.
+                 */
+                static final class Codes {
+                    static final int[] TABLE = new int[%d];
+
+                    static {
+                        String packed = %s;
+                        for (int i = 0; i < TABLE.length; i++) TABLE[i] = packed.charAt(i) << 8;
+                    }
+                }
+
+                /**
+                 * Holds the UTF-8 bytes of each code block in {@link Codes#TABLE} that don't depend on the most byte.<br>
+                 * Three-byte sequences hold their first two bytes in bits 8-15 and 0-7, four-byte sequences hold their
+                 * first three bytes in bits 16-23, 8-15 and 0-7. The upper two bits of the most byte still have to be
+                 * or-ed into the last one.
+                 */
+                static final class Utf8Prefixes {
+                    static final int[] TABLE = new int[%d];
+
+                    static {
+                        String packed = %s;
+                        for (int i = 0; i < TABLE.length; i++) {
+                            TABLE[i] = packed.charAt(i * 2) << 16 | packed.charAt(i * 2 + 1);
+                        }
+                    }
+                }
+
+                /**
+                 * Holds the least byte encoded by each code block, indexed by the code point shifted right by 8, or
+                 * {@code Base65536Decoder.PADDING} for the padding block and {@code Base65536Decoder.INVALID} for unknown
+                 * blocks.
+                 */
+                static final class LeastBytes {
+                    static final short[] TABLE = new short[%d];
+
+                    static {
+                        String packed = %s;
+                        for (int i = 0; i < TABLE.length; i++) TABLE[i] = (short) (packed.charAt(i) - 1);
+                    }
+                }
+            }
+            """.formatted(
+                hex(PAD),
+                hex(utf8Prefix(PAD)),
+                firstSupplementaryIndex,
+                codeChars.length,
+                literal(codeChars),
+                codes.length,
+                literal(prefixChars),
+                leastByteChars.length,
+                literal(leastByteChars)
+            );
+
+        Path file = Path.of(args[0], "net", "eewbot", "base65536j", "Base65536Tables.java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+    }
+
+    private static int[] codes() {
+        int[] codes = new int[256];
+        int count = 0;
+        for (int[] range : CODE_BLOCK_RANGES) {
+            for (int code = range[0]; code <= range[1]; code += 0x100) codes[count++] = code;
+        }
+        if (count != codes.length) throw new IllegalStateException("Expected 256 code blocks, but got " + count);
+        return codes;
+    }
+
+    private static int utf8Prefix(int codeBlock) {
+        if (codeBlock < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            return (0xE0 | codeBlock >>> 12) << 8 | 0x80 | (codeBlock >>> 6 & 0x3F);
+        }
+        return (0xF0 | codeBlock >>> 18) << 16 | (0x80 | (codeBlock >>> 12 & 0x3F)) << 8 | 0x80 | (codeBlock >>> 6 & 0x3F);
+    }
+
+    private static String hex(int value) {
+        return String.format("0x%x", value);
+    }
+
+    /**
+     * Writes the chars as a string literal split over lines. Chars below 0x100 are written as octal escapes, since
+     * unicode escapes are translated before the literal is parsed, so a line feed or a quote written as one would break
+     * it.
+     */
+    private static String literal(char[] chars) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < chars.length; i++) {
+            if (i % CHARS_PER_LINE == 0) builder.append(i == 0 ? "\"" : "\"\n                + \"");
+            char c = chars[i];
+            builder.append(c < 0x100 ? String.format("\\%03o", (int) c) : String.format("\\u%04x", (int) c));
+            if (i == chars.length - 1) builder.append('"');
+        }
+        return builder.toString();
+    }
+}
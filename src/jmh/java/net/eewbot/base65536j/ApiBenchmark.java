@@ -0,0 +1,162 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Covers every public array, String and ByteBuffer entry point across sizes and kinds of data, with
+ * {@link java.util.Base64} as the baseline. Run with the gc profiler, which the build enables, to see the allocation
+ * rate of each entry point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ApiBenchmark {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+
+    @Param({"16", "1024", "65536", "1048576"})
+    private int size;
+
+    /**
+     * "random" is incompressible data, which spreads the pairs over all the code blocks and takes many four bytes
+     * UTF-8 sequences. "text" is repeated ASCII JSON, whose pairs all fall into a few code blocks.
+     */
+    @Param({"random", "text"})
+    private String data;
+
+    private byte[] src;
+    private byte[] encoded;
+    private String encodedString;
+    private ByteBuffer heapSrc;
+    private ByteBuffer directSrc;
+    private ByteBuffer heapEncoded;
+    private ByteBuffer directEncoded;
+    private byte[] base64Encoded;
+    private String base64String;
+
+    /**
+     * Output buffers written by the benchmark methods, which are owned by each thread.
+     */
+    @State(Scope.Thread)
+    public static class Output {
+        private byte[] encoded;
+        private byte[] decoded;
+        private byte[] base64Encoded;
+        private byte[] base64Decoded;
+
+        @Setup
+        public void setup(ApiBenchmark benchmark) {
+            encoded = new byte[benchmark.encoded.length];
+            decoded = new byte[benchmark.src.length];
+            base64Encoded = new byte[benchmark.base64Encoded.length];
+            base64Decoded = new byte[benchmark.src.length];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        src = new byte[size];
+        if (data.equals("random")) {
+            new Random(size).nextBytes(src);
+        } else {
+            byte[] json = "{\"type\":\"earthquake\",\"magnitude\":5.2,\"depth\":\"10km\",\"intensity\":\"4\"},"
+                .getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < size; i++) src[i] = json[i % json.length];
+        }
+
+        encoded = encoder.encode(src);
+        encodedString = encoder.encodeToString(src);
+        heapSrc = ByteBuffer.wrap(src);
+        directSrc = ByteBuffer.allocateDirect(size).put(src).flip();
+        heapEncoded = ByteBuffer.wrap(encoded);
+        directEncoded = ByteBuffer.allocateDirect(encoded.length).put(encoded).flip();
+        base64Encoded = Base64.getEncoder().encode(src);
+        base64String = Base64.getEncoder().encodeToString(src);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] encodeArray() {
+        return encoder.encode(src);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int encodeIntoArray(Output output) {
+        return encoder.encode(src, output.encoded);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String encodeToString() {
+        return encoder.encodeToString(src);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ByteBuffer encodeHeapBuffer() {
+        return encoder.encode(heapSrc.duplicate());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ByteBuffer encodeDirectBuffer() {
+        return encoder.encode(directSrc.duplicate());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] decodeArray() {
+        return decoder.decode(encoded);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int decodeIntoArray(Output output) {
+        return decoder.decode(encoded, output.decoded);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] decodeString() {
+        return decoder.decode(encodedString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ByteBuffer decodeHeapBuffer() {
+        return decoder.decode(heapEncoded.duplicate());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ByteBuffer decodeDirectBuffer() {
+        return decoder.decode(directEncoded.duplicate());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] base64EncodeArray() {
+        return Base64.getEncoder().encode(src);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int base64EncodeIntoArray(Output output) {
+        return Base64.getEncoder().encode(src, output.base64Encoded);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String base64EncodeToString() {
+        return Base64.getEncoder().encodeToString(src);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] base64DecodeArray() {
+        return Base64.getDecoder().decode(base64Encoded);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int base64DecodeIntoArray(Output output) {
+        return Base64.getDecoder().decode(base64Encoded, output.base64Decoded);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] base64DecodeString() {
+        return Base64.getDecoder().decode(base64String);
+    }
+}
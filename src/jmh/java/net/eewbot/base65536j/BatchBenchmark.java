@@ -0,0 +1,74 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding many small messages one call at a time with {@link Base65536Batch}, on the calling
+ * thread and on the common pool. Every operation handles the whole batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchBenchmark {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+
+    @Param({"100", "10000", "100000"})
+    private int count;
+
+    @Param({"64"})
+    private int messageLength;
+
+    private List<byte[]> messages;
+    private List<byte[]> encodedMessages;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(count);
+        messages = new ArrayList<>(count);
+        encodedMessages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] message = new byte[messageLength];
+            random.nextBytes(message);
+            messages.add(message);
+            encodedMessages.add(encoder.encode(message));
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void encodeEach(Blackhole blackhole) {
+        for (byte[] message : messages) blackhole.consume(encoder.encodeToString(message));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Base65536Batch encodeBatch() {
+        return encoder.encodeBatch(messages);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Base65536Batch encodeBatchParallel() {
+        return encoder.encodeBatch(messages, ForkJoinPool.commonPool());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void decodeEach(Blackhole blackhole) {
+        for (byte[] message : encodedMessages) blackhole.consume(decoder.decode(message));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Base65536Batch decodeBatch() {
+        return decoder.decodeBatch(encodedMessages);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Base65536Batch decodeBatchParallel() {
+        return decoder.decodeBatch(encodedMessages, ForkJoinPool.commonPool());
+    }
+}
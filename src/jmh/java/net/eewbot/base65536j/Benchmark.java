@@ -3,18 +3,24 @@ package net.eewbot.base65536j;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.concurrent.TimeUnit;
 
 @State(Scope.Benchmark)
 public class Benchmark {
     private static final Base65536Encoder encoder = Base65536.getEncoder();
     private static final Base65536Decoder decoder = Base65536.getDecoder();
-    private static byte[] oneByteArray;
-    private static byte[] tenKilobytesArray;
-    private static byte[] oneMegabytesArray;
-    private static String oneByteString;
-    private static String tenKilobytesString;
-    private static String oneMegabytesString;
+    private byte[] oneByteArray;
+    private byte[] tenKilobytesArray;
+    private byte[] oneMegabytesArray;
+    private String oneByteString;
+    private String tenKilobytesString;
+    private String oneMegabytesString;
+    private byte[] oneMegabytesEncoded;
+    private char[] oneMegabytesChars;
 
     @Setup
     public void setup() {
@@ -22,12 +28,14 @@ public class Benchmark {
         tenKilobytesArray = new byte[10_000];
         oneMegabytesArray = new byte[1_000_000];
         for (int i = 0; i < 1_000_000; i++) {
-            tenKilobytesArray[i % 100] = (byte) (i & 0xff);
+            if (i < tenKilobytesArray.length) tenKilobytesArray[i] = (byte) (i & 0xff);
             oneMegabytesArray[i] = (byte) (i & 0xff);
         }
         oneByteString = encoder.encodeToString(oneByteArray);
         tenKilobytesString = encoder.encodeToString(tenKilobytesArray);
         oneMegabytesString = encoder.encodeToString(oneMegabytesArray);
+        oneMegabytesEncoded = encoder.encode(oneMegabytesArray);
+        oneMegabytesChars = oneMegabytesString.toCharArray();
     }
 
     @org.openjdk.jmh.annotations.Benchmark
@@ -51,6 +59,24 @@ public class Benchmark {
         blackhole.consume(encoder.encodeToString(oneMegabytesArray));
     }
 
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void encoderStreamTenKilobytes() throws IOException {
+        try (OutputStream os = encoder.wrap(OutputStream.nullOutputStream())) {
+            os.write(tenKilobytesArray);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void encoderStreamOneMegabytes() throws IOException {
+        try (OutputStream os = encoder.wrap(OutputStream.nullOutputStream())) {
+            os.write(oneMegabytesArray);
+        }
+    }
+
     @org.openjdk.jmh.annotations.Benchmark
     @BenchmarkMode(Mode.Throughput)
     @OutputTimeUnit(TimeUnit.SECONDS)
@@ -71,4 +97,22 @@ public class Benchmark {
     public void decoderOneMegabytes(Blackhole blackhole) {
         blackhole.consume(decoder.decode(oneMegabytesString));
     }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void decoderCharArrayOneMegabytes(Blackhole blackhole) {
+        blackhole.consume(decoder.decode(oneMegabytesChars, 0, oneMegabytesChars.length));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void decoderStreamOneMegabytes(Blackhole blackhole) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (InputStream is = decoder.wrap(new ByteArrayInputStream(oneMegabytesEncoded))) {
+            int read;
+            while ((read = is.read(buffer)) != -1) blackhole.consume(read);
+        }
+    }
 }
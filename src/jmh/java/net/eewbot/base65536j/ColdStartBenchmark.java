@@ -0,0 +1,59 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to the first encode and decode in a fresh JVM, which includes loading the classes and unpacking
+ * the lookup tables. Every fork runs a single call, so the score is the mean of cold calls across forks.<br>
+ * These benchmarks are excluded from the {@code jmh} task, whose warmup settings would override the annotations here,
+ * and run by the {@code jmhColdStart} task instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ColdStartBenchmark {
+    private byte[] data;
+    private String text;
+    private byte[] utf8;
+
+    // The inputs are built without touching the library, so that nothing is initialized before the measured call.
+    @Setup
+    public void setup() {
+        data = "{\"type\":\"earthquake\",\"magnitude\":5.2}".getBytes(StandardCharsets.UTF_8);
+        // The encoded data above.
+        text = "\u577B\uD81A\uDD74\u9A70\u6F22\u9A22\uD80C\uDC61\u9D74\uD80C\uDF71\uA261\u5765\u572C\u966D\uD801"
+            + "\uDE67\uD80C\uDE69\u9975\u5765\u6A3A\u672E\u157D";
+        utf8 = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] firstEncode() {
+        return Base65536.getEncoder().encode(data);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String firstEncodeToString() {
+        return Base65536.getEncoder().encodeToString(data);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] firstDecode() {
+        return Base65536.getDecoder().decode(utf8);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] firstDecodeString() {
+        return Base65536.getDecoder().decode(text);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] firstRoundTrip() {
+        return Base65536.getDecoder().decode(Base65536.getEncoder().encode(data));
+    }
+}
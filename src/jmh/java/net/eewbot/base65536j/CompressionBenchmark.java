@@ -0,0 +1,74 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares plain encoding with {@link Base65536DeflateCodec} at a few levels on the sample files of the tests. The
+ * CPU cost is what is measured; the code point counts, which are the size side of the trade-off, are printed when
+ * every trial is set up.
+ */
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+    private static final Path SAMPLE_FILES = Path.of("src/test/resources/pairs/sample-files");
+
+    @Param({"everyByte", "everyPairOfBytes", "lena_std.tif"})
+    private String sampleFile;
+
+    @Param({"1", "6", "9"})
+    private int level;
+
+    private Base65536DeflateCodec codec;
+    private byte[] data;
+    private String compressed;
+    private String plain;
+
+    @Setup
+    public void setup() throws IOException {
+        codec = Base65536.getDeflateCodec().withLevel(level);
+        data = Files.readAllBytes(SAMPLE_FILES.resolve(sampleFile + ".bin"));
+        compressed = codec.encodeToString(data);
+        plain = Base65536.getEncoder().encodeToString(data);
+
+        System.out.printf(
+            "%n%s at level %d: %d code points compressed, %d code points plain%n",
+            sampleFile,
+            level,
+            compressed.codePointCount(0, compressed.length()),
+            plain.codePointCount(0, plain.length())
+        );
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void encoderCompressed(Blackhole blackhole) {
+        blackhole.consume(codec.encodeToString(data));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void encoderPlain(Blackhole blackhole) {
+        blackhole.consume(Base65536.getEncoder().encodeToString(data));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void decoderCompressed(Blackhole blackhole) {
+        blackhole.consume(codec.decode(compressed));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void decoderPlain(Blackhole blackhole) {
+        blackhole.consume(Base65536.getDecoder().decode(plain));
+    }
+}
@@ -0,0 +1,11 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Runs every case of {@link ApiBenchmark} from four threads at once, which share the encoder, the decoder and the
+ * input, to show contention and the effect of allocation on throughput.
+ */
+@Threads(4)
+public class ConcurrentApiBenchmark extends ApiBenchmark {
+}
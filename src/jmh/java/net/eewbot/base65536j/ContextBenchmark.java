@@ -0,0 +1,84 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the allocating one-shot methods with {@link Base65536Encoder.Context} and {@link Base65536Decoder.Context}
+ * and the methods writing into caller arrays on small messages. Run with the gc profiler, which the build enables:
+ * the {@code gc.alloc.rate.norm} of the context and caller array cases should be 0 bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContextBenchmark {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+
+    @Param({"1", "16", "256"})
+    private int size;
+
+    private byte[] src;
+    private byte[] encoded;
+    private String encodedString;
+    private byte[] encodeOutput;
+    private byte[] decodeOutput;
+    private Base65536Encoder.Context encoderContext;
+    private Base65536Decoder.Context decoderContext;
+
+    @Setup
+    public void setup() {
+        src = new byte[size];
+        new Random(size).nextBytes(src);
+        encoded = encoder.encode(src);
+        encodedString = encoder.encodeToString(src);
+        encodeOutput = new byte[encoded.length];
+        decodeOutput = new byte[size];
+        encoderContext = encoder.newContext();
+        decoderContext = decoder.newContext();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String encodeToString() {
+        return encoder.encodeToString(src);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int encodeIntoArray() {
+        return encoder.encode(src, encodeOutput);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ByteBuffer encodeContext() {
+        return encoderContext.encode(src);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public CharBuffer encodeContextToChars() {
+        return encoderContext.encodeToChars(src, 0, src.length);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] decodeString() {
+        return decoder.decode(encodedString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int decodeIntoArray() {
+        return decoder.decode(encoded, decodeOutput);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ByteBuffer decodeContext() {
+        return decoderContext.decode(encoded);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ByteBuffer decodeContextFromString() {
+        return decoderContext.decode(encodedString, 0, encodedString.length());
+    }
+}
@@ -0,0 +1,47 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and the Vector API counting kernels. The end-to-end cases in {@link Benchmark} use the vectorized
+ * kernel as the build resolves the module for the forks; run them with {@code -Dnet.eewbot.base65536j.vector=false}
+ * to compare against the scalar one.
+ */
+@State(Scope.Benchmark)
+public class CountingKernelBenchmark {
+    @Param({"scalar", "vector"})
+    private String kernelType;
+
+    private CountingKernel kernel;
+    private byte[] oneMegabytesArray;
+    private byte[] oneMegabytesEncoded;
+
+    @Setup
+    public void setup() {
+        kernel = kernelType.equals("scalar") ? new CountingKernel() : CountingKernel.INSTANCE;
+        if (kernelType.equals("vector") && kernel.getClass() == CountingKernel.class) {
+            throw new IllegalStateException("The jdk.incubator.vector module is not resolved");
+        }
+
+        oneMegabytesArray = new byte[1_000_000];
+        new Random(0).nextBytes(oneMegabytesArray);
+        oneMegabytesEncoded = Base65536.getEncoder().encode(oneMegabytesArray);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int encodedLengthOneMegabytes() {
+        return kernel.countPairsAtLeast(oneMegabytesArray, 0, oneMegabytesArray.length, Base65536Encoder.FIRST_SUPPLEMENTARY_INDEX);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int decodedLengthOneMegabytes() {
+        return kernel.countNonContinuationBytes(oneMegabytesEncoded, 0, oneMegabytesEncoded.length);
+    }
+}
@@ -0,0 +1,49 @@
+package net.eewbot.base65536j;
+
+import net.eewbot.base65536j.exception.IllegalBase65536TextException;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the failure path on garbage input: catching the exception of {@code decode}, with and without stack
+ * traces, against {@link Base65536Decoder#tryDecode(byte[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InvalidInputBenchmark {
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+
+    private byte[] garbage;
+
+    @Setup
+    public void setup() {
+        garbage = ("\u3400\u3401\u3402" + "GET / HTTP/1.1").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Object decodeWithStackTrace() {
+        try {
+            return decoder.decode(garbage);
+        } catch (IllegalBase65536TextException e) {
+            return e;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @Fork(jvmArgsAppend = "-Dnet.eewbot.base65536j.stackTrace=false")
+    public Object decodeWithoutStackTrace() {
+        try {
+            return decoder.decode(garbage);
+        } catch (IllegalBase65536TextException e) {
+            return e;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Base65536DecodeResult tryDecode() {
+        return decoder.tryDecode(garbage);
+    }
+}
@@ -0,0 +1,48 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+public class ParallelBenchmark {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private byte[] sixtyFourMegabytesArray;
+    private byte[] sixtyFourMegabytesEncoded;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool(parallelism);
+        sixtyFourMegabytesArray = new byte[64_000_000];
+        new Random(0).nextBytes(sixtyFourMegabytesArray);
+        sixtyFourMegabytesEncoded = encoder.encode(sixtyFourMegabytesArray);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void encoderParallelSixtyFourMegabytes(Blackhole blackhole) {
+        blackhole.consume(encoder.encodeParallel(sixtyFourMegabytesArray, pool));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void decoderParallelSixtyFourMegabytes(Blackhole blackhole) {
+        blackhole.consume(decoder.decodeParallel(sixtyFourMegabytesEncoded, pool));
+    }
+}
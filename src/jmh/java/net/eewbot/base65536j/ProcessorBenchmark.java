@@ -0,0 +1,110 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding a payload published in 8 KiB chunks by collecting it and calling {@code encode} once against
+ * passing it through a {@link Base65536Processor} stage, which either copies or pools its output buffers. Publisher
+ * and subscriber run on the calling thread, so only the stage itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProcessorBenchmark {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"65536", "16777216"})
+    private int length;
+
+    private List<ByteBuffer> chunks;
+
+    @Setup
+    public void setup() {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        chunks = new ArrayList<>();
+        for (int i = 0; i < length; i += CHUNK_SIZE) {
+            chunks.add(ByteBuffer.wrap(data, i, Math.min(CHUNK_SIZE, length - i)).slice());
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] collectThenEncode() {
+        ByteBuffer whole = ByteBuffer.allocate(length);
+        for (ByteBuffer chunk : chunks) whole.put(chunk.duplicate());
+        return encoder.encode(whole.array());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long processor() {
+        return run(encoder.newProcessor());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long pooledProcessor() {
+        return run(encoder.newPooledProcessor(
+            Base65536Processor.DEFAULT_BUFFER_SIZE,
+            Base65536Processor.DEFAULT_MAX_BUFFERS
+        ));
+    }
+
+    private long run(Base65536Processor<ByteBuffer, ByteBuffer> processor) {
+        long[] written = new long[1];
+        processor.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                written[0] += item.remaining();
+                processor.release(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+
+            @Override
+            public void onComplete() {}
+        });
+
+        processor.onSubscribe(new Flow.Subscription() {
+            private int next = 0;
+            private boolean emitting = false;
+            private boolean done = false;
+            private long requested = 0;
+
+            @Override
+            public void request(long n) {
+                requested += n;
+                if (emitting) return;
+
+                emitting = true;
+                while (requested > 0 && next < chunks.size()) {
+                    requested--;
+                    processor.onNext(chunks.get(next++).duplicate());
+                }
+                if (next == chunks.size() && !done) {
+                    done = true;
+                    processor.onComplete();
+                }
+                emitting = false;
+            }
+
+            @Override
+            public void cancel() {}
+        });
+        return written[0];
+    }
+}
@@ -0,0 +1,59 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares extracting Base65536 runs from a log of mixed text by matching non-ASCII words with a regular expression
+ * and decoding each match against a single pass of {@link Base65536Scanner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScannerBenchmark {
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+    private static final Base65536Scanner scanner = Base65536.getScanner().withMinimumLength(8);
+    private static final Pattern RUN = Pattern.compile("[^\\x00-\\x7F\\s]{8,}");
+
+    @Param({"100"})
+    private int lines;
+
+    private String text;
+    private byte[] utf8;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(lines);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            byte[] payload = new byte[64 + random.nextInt(64)];
+            random.nextBytes(payload);
+            builder.append("2026-10-17T00:00:00Z INFO message ").append(i).append(" payload=")
+                .append(Base65536.getEncoder().encodeToString(payload)).append('\n');
+        }
+        text = builder.toString();
+        utf8 = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void regexThenDecode(Blackhole blackhole) {
+        Matcher matcher = RUN.matcher(text);
+        while (matcher.find()) blackhole.consume(decoder.decode(matcher.group()));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int scanString(Blackhole blackhole) {
+        return scanner.scan(text, (start, end, decoded, length) -> blackhole.consume(decoded));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int scanUtf8(Blackhole blackhole) {
+        return scanner.scan(utf8, (start, end, decoded, length) -> blackhole.consume(decoded));
+    }
+}
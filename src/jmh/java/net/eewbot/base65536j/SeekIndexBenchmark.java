@@ -0,0 +1,49 @@
+package net.eewbot.base65536j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a 4 KiB slice from the middle of a 16 MiB payload by decoding the whole text against seeking to it
+ * with a {@link Base65536SeekIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeekIndexBenchmark {
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+    private static final int LENGTH = 16 << 20;
+    private static final int FROM = LENGTH / 2 + 1;
+    private static final int TO = FROM + 4096;
+
+    private String text;
+    private Base65536SeekIndex index;
+
+    @Setup
+    public void setup() {
+        byte[] data = new byte[LENGTH];
+        new Random(LENGTH).nextBytes(data);
+        text = Base65536.getEncoder().encodeToString(data);
+        index = decoder.index(text);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] decodeAll() {
+        byte[] decoded = decoder.decode(text);
+        byte[] slice = new byte[TO - FROM];
+        System.arraycopy(decoded, FROM, slice, 0, slice.length);
+        return slice;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] decodeRange() {
+        return decoder.decodeRange(text, index, FROM, TO);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Base65536SeekIndex buildIndex() {
+        return decoder.index(text);
+    }
+}
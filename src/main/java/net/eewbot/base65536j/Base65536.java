@@ -1,5 +1,7 @@
 package net.eewbot.base65536j;
 
+import java.util.zip.Deflater;
+
 /**
  * This class consists exclusively of static methods for obtaining encoders and decoders for the Base65536 encoding
  * scheme.
@@ -10,6 +12,18 @@ public class Base65536 {
     private static final Base65536Encoder encoder = new Base65536Encoder();
     private static final Base65536Decoder decoder = new Base65536Decoder();
 
+    /**
+     * Holds the codec, whose pools of deflaters and inflaters are only set up when it is first used rather than by
+     * the first call to {@link #getEncoder()}.
+     */
+    private static final class DeflateCodecHolder {
+        static final Base65536DeflateCodec INSTANCE = new Base65536DeflateCodec(Deflater.DEFAULT_COMPRESSION, decoder);
+    }
+
+    private static final class ScannerHolder {
+        static final Base65536Scanner INSTANCE = new Base65536Scanner(1);
+    }
+
     /**
      * Returns a {@link Base65536Encoder}.
      * @return A base65536 encoder.
@@ -25,4 +39,20 @@ public class Base65536 {
     public static Base65536Decoder getDecoder() {
         return decoder;
     }
+
+    /**
+     * Returns a {@link Base65536DeflateCodec} which compresses at the default level.
+     * @return A base65536 codec with Deflate compression.
+     */
+    public static Base65536DeflateCodec getDeflateCodec() {
+        return DeflateCodecHolder.INSTANCE;
+    }
+
+    /**
+     * Returns a {@link Base65536Scanner} which reports runs of any length.
+     * @return A scanner for Base65536 runs embedded in text.
+     */
+    public static Base65536Scanner getScanner() {
+        return ScannerHolder.INSTANCE;
+    }
 }
@@ -0,0 +1,81 @@
+package net.eewbot.base65536j;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The results of encoding or decoding many messages at once with {@link Base65536Encoder#encodeBatch(java.util.List)}
+ * or {@link Base65536Decoder#decodeBatch(java.util.List)}.<br>
+ * All results are written back to back into a single array, and an index of offsets tells where each of them starts
+ * and ends, so a batch costs two allocations regardless of the number of messages.
+ */
+public final class Base65536Batch {
+    private final byte[] data;
+    private final int[] offsets;
+
+    Base65536Batch(byte[] data, int[] offsets) {
+        this.data = data;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Returns the number of results, which is the number of messages of the batch.
+     * @return The number of results.
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the array all results are written into. It is not copied, so changes to it are visible through this
+     * batch.
+     * @return The array holding the results back to back.
+     */
+    public byte[] array() {
+        return data;
+    }
+
+    /**
+     * Returns the offset in {@link #array()} at which the result of the given message starts.
+     * @param index the index of the message
+     * @return The offset of the result.
+     * @throws IndexOutOfBoundsException if index is out of bounds.
+     */
+    public int offset(int index) {
+        Objects.checkIndex(index, size());
+        return offsets[index];
+    }
+
+    /**
+     * Returns the length of the result of the given message.
+     * @param index the index of the message
+     * @return The length of the result in bytes.
+     * @throws IndexOutOfBoundsException if index is out of bounds.
+     */
+    public int length(int index) {
+        Objects.checkIndex(index, size());
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Returns a view of the result of the given message in {@link #array()}, whose position is zero and whose limit is
+     * the length of the result.
+     * @param index the index of the message
+     * @return A buffer sharing the array of this batch.
+     * @throws IndexOutOfBoundsException if index is out of bounds.
+     */
+    public ByteBuffer get(int index) {
+        return ByteBuffer.wrap(data, offset(index), length(index)).slice();
+    }
+
+    /**
+     * Copies the result of the given message into a newly-allocated byte array.
+     * @param index the index of the message
+     * @return A newly-allocated byte array containing the result.
+     * @throws IndexOutOfBoundsException if index is out of bounds.
+     */
+    public byte[] toByteArray(int index) {
+        return Arrays.copyOfRange(data, offset(index), offset(index) + length(index));
+    }
+}
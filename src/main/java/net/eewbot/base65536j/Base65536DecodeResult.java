@@ -0,0 +1,71 @@
+package net.eewbot.base65536j;
+
+/**
+ * The result of decoding untrusted text with {@link Base65536Decoder#tryDecode(CharSequence)} or
+ * {@link Base65536Decoder#tryDecode(byte[])}, which is either the decoded bytes or the kind and the position of the
+ * first error, in the same way as {@link Base65536ValidationResult}.
+ */
+public final class Base65536DecodeResult {
+    private final byte[] bytes;
+    private final Base65536ValidationResult validation;
+
+    private Base65536DecodeResult(byte[] bytes, Base65536ValidationResult validation) {
+        this.bytes = bytes;
+        this.validation = validation;
+    }
+
+    static Base65536DecodeResult success(byte[] bytes) {
+        return new Base65536DecodeResult(bytes, Base65536ValidationResult.VALID);
+    }
+
+    static Base65536DecodeResult failure(Base65536ValidationResult validation) {
+        return new Base65536DecodeResult(null, validation);
+    }
+
+    /**
+     * Returns whether the text was decoded.
+     * @return true if the text was valid and decoded.
+     */
+    public boolean isSuccess() {
+        return bytes != null;
+    }
+
+    /**
+     * Returns the decoded bytes. The array is not copied.
+     * @return The decoded bytes, or null if the text is invalid.
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the kind of the first error.
+     * @return The kind of the first error, or null if the text was decoded.
+     */
+    public Base65536ValidationResult.Error getError() {
+        return validation.getError();
+    }
+
+    /**
+     * Returns the position of the first error, which is a char index for a CharSequence and a byte offset for UTF-8
+     * input.
+     * @return The position of the first error, or -1 if the text was decoded.
+     * @see Base65536ValidationResult#getPosition()
+     */
+    public int getPosition() {
+        return validation.getPosition();
+    }
+
+    /**
+     * Returns the result of validating the text.
+     * @return The validation result, which is valid if the text was decoded.
+     */
+    public Base65536ValidationResult getValidationResult() {
+        return validation;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "SUCCESS (" + bytes.length + " bytes)" : validation.toString();
+    }
+}
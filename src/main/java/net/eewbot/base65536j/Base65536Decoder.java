@@ -3,42 +3,707 @@ package net.eewbot.base65536j;
 import net.eewbot.base65536j.exception.BufferTooSmallException;
 import net.eewbot.base65536j.exception.IllegalBase65536TextException;
 
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class implements a decoder for decoding byte data using the Base65536 encoding scheme follows the
  * <a href="https://github.com/qntm/base65536">original Base65536 implementation</a>.<br>
  * Instances of {@link Base65536Decoder} class are safe for use by multiple concurrent threads.<br>
  * Unless otherwise noted, passing a null argument to a method of this class will cause a {@link NullPointerException}
- * to be thrown.
+ * to be thrown.<br>
+ * The decoder returned by {@link Base65536#getDecoder()} is strict. A {@link #lenient() lenient} one also skips
+ * whitespace and line breaks wherever they appear in the text.<br>
+ * Invalid text is reported with {@link IllegalBase65536TextException}, or with a result by the {@code tryDecode} and
+ * {@code validate} methods. Applications which decode untrusted text at a high rate can set the
+ * {@code net.eewbot.base65536j.stackTrace} system property to {@code false}, so that the exceptions, and those
+ * {@link Base65536DeflateCodec} throws for invalid compressed data, are thrown without capturing a stack trace.
  */
 public class Base65536Decoder {
-    Base65536Decoder() {}
+    static final String STACK_TRACE_PROPERTY = "net.eewbot.base65536j.stackTrace";
 
-    private static final Map<Integer, Integer> TABLE = new HashMap<Integer, Integer>() {
-        {
-            for (int i = 0; i < Base65536Encoder.CODES.length; i++) {
-                put(Base65536Encoder.CODES[i], i);
+    /**
+     * Whether the exceptions for invalid text and invalid compressed data capture stack traces, which can be turned off
+     * with the {@value #STACK_TRACE_PROPERTY} system property.
+     */
+    static final boolean STACK_TRACES = Boolean.parseBoolean(System.getProperty(STACK_TRACE_PROPERTY, "true"));
+
+    private static final Base65536Decoder LENIENT = new Base65536Decoder(true);
+
+    private final boolean lenient;
+
+    Base65536Decoder() {
+        this(false);
+    }
+
+    private Base65536Decoder(boolean lenient) {
+        this.lenient = lenient;
+    }
+
+    /**
+     * Returns a decoder which skips the whitespace and line break characters of {@code \s}, that is space, tab, line
+     * feed, line tabulation, form feed and carriage return, wherever they appear in the text, including after the
+     * padding code point. Text which wraps lines or contains spaces, for example from chat messages or mail, can be
+     * decoded as it is, without copying it to strip them first.<br>
+     * The characters are skipped inside the decoding loops when a code point fails the lookup, so valid text without
+     * them is decoded as fast as by the strict decoder.
+     * @return A lenient decoder, which is this decoder if it is already lenient.
+     */
+    public Base65536Decoder lenient() {
+        return LENIENT;
+    }
+
+    /**
+     * Tells whether this decoder skips whitespace and line breaks.
+     * @return true if this decoder is {@link #lenient() lenient}.
+     */
+    public boolean isLenient() {
+        return lenient;
+    }
+
+    static final int INVALID = -1;
+    static final int PADDING = 0x100;
+
+    /**
+     * Looks up the least byte encoded by the block of the given code point.
+     * @return The least byte, {@link #PADDING} for the padding block or {@link #INVALID} for unknown blocks.
+     */
+    static int leastByteOf(int codePoint) {
+        int codeBlock = codePoint >>> 8;
+        short[] table = Base65536Tables.LeastBytes.TABLE;
+        return codeBlock < table.length ? table[codeBlock] : INVALID;
+    }
+
+    /**
+     * Tells whether a lenient decoder skips the given char, code point or byte. Bytes are passed as they are, so that
+     * the negative values of bytes of multibyte UTF-8 sequences never match.
+     */
+    static boolean isIgnorable(int c) {
+        return c == ' ' || c >= '\t' && c <= '\r';
+    }
+
+    private static boolean isIgnorableUntil(CharSequence src, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isIgnorable(src.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isIgnorableUntil(char[] src, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isIgnorable(src[i])) return false;
+        }
+        return true;
+    }
+
+    private static boolean isIgnorableUntil(byte[] src, int off, int end) {
+        for (int i = off; i < end; i++) {
+            if (!isIgnorable(src[i])) return false;
+        }
+        return true;
+    }
+
+    private static boolean isIgnorableUntil(ByteBuffer src, int off, int end) {
+        for (int i = off; i < end; i++) {
+            if (!isIgnorable(src.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isIgnorableUntil(CharBuffer src, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isIgnorable(src.get(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the end of the given range without the trailing chars a lenient decoder skips.
+     */
+    private static int trimTrailing(CharSequence src, int start, int end) {
+        while (end > start && isIgnorable(src.charAt(end - 1))) end--;
+        return end;
+    }
+
+    /**
+     * Returns the end of the given range without the trailing bytes a lenient decoder skips.
+     */
+    private static int trimTrailing(byte[] src, int off, int end) {
+        while (end > off && isIgnorable(src[end - 1])) end--;
+        return end;
+    }
+
+    private static int calcBufferLength(CharSequence src, int start, int end, boolean lenient) {
+        if (lenient) end = trimTrailing(src, start, end);
+        if (start == end) return 0;
+
+        int codePointCount = countCodePoints(src, start, end, lenient);
+        return endsWithPadding(src, start, end, codePointCount) ? codePointCount * 2 - 1 : codePointCount * 2;
+    }
+
+    /**
+     * Counts the code points in the given range, leaving out the chars a lenient decoder skips.
+     */
+    private static int countCodePoints(CharSequence src, int start, int end, boolean lenient) {
+        int codePointCount = Character.codePointCount(src, start, end);
+        if (!lenient) return codePointCount;
+
+        for (int i = start; i < end; i++) {
+            if (isIgnorable(src.charAt(i))) codePointCount--;
+        }
+        return codePointCount;
+    }
+
+    /**
+     * Validates the last code point of the given non-empty range and tells whether it is the padding code point.
+     */
+    private static boolean endsWithPadding(CharSequence src, int start, int end, int codePointCount) {
+        int lastCodePoint = src.charAt(end - 1);
+        if (Character.isLowSurrogate((char) lastCodePoint) && end - 2 >= start) {
+            char high = src.charAt(end - 2);
+            if (Character.isHighSurrogate(high)) lastCodePoint = Character.toCodePoint(high, (char) lastCodePoint);
+        }
+
+        int leastByte = leastByteOf(lastCodePoint);
+        if (leastByte == INVALID) throw unknownCodePoint(codePointCount, lastCodePoint);
+        return leastByte == PADDING;
+    }
+
+    /**
+     * Decodes the Base65536 text in the given range, writing the results to dst, starting at dstOff.
+     * The caller has to make sure dst has the space calculated by
+     * {@link #calcBufferLength(CharSequence, int, int, boolean)}.
+     * @return The number of bytes written to dst.
+     */
+    private static int decodeChars(CharSequence src, int start, int end, byte[] dst, int dstOff, boolean lenient) {
+        return decodeChars(src, start, end, dst, dstOff, dstOff, lenient);
+    }
+
+    /**
+     * Decodes the Base65536 text in the given range as a part of a larger text, whose decoded bytes start at dstBase
+     * in dst, so that errors report the same code point positions as decoding the whole text does.
+     * @return The number of bytes written to dst.
+     */
+    private static int decodeChars(
+        CharSequence src,
+        int start,
+        int end,
+        byte[] dst,
+        int dstOff,
+        int dstBase,
+        boolean lenient
+    ) {
+        int o = dstOff;
+
+        for (int i = start; i < end; ) {
+            int codePoint = src.charAt(i++);
+            if (Character.isHighSurrogate((char) codePoint) && i < end) {
+                char low = src.charAt(i);
+                if (Character.isLowSurrogate(low)) {
+                    codePoint = Character.toCodePoint((char) codePoint, low);
+                    i++;
+                }
+            }
+
+            int leastByte = leastByteOf(codePoint);
+            if (leastByte == INVALID) {
+                if (lenient && isIgnorable(codePoint)) continue;
+                throw unknownCodePoint((o - dstBase) / 2 + 1, codePoint);
+            }
+
+            dst[o++] = (byte) codePoint;
+            if (leastByte != PADDING) {
+                dst[o++] = (byte) leastByte;
+            } else if (i != end && !(lenient && isIgnorableUntil(src, i, end))) {
+                throw afterPadding();
+            }
+        }
+
+        return o - dstOff;
+    }
+
+    /**
+     * Decodes the Base65536 text in the given char array range, writing the results to dst, starting at dstOff.
+     * The caller has to make sure dst has the space for two bytes per char.
+     * @return The number of bytes written to dst.
+     */
+    private static int decodeChars(char[] src, int start, int end, byte[] dst, int dstOff, boolean lenient) {
+        int o = dstOff;
+
+        for (int i = start; i < end; ) {
+            int codePoint = src[i++];
+            if (Character.isHighSurrogate((char) codePoint) && i < end && Character.isLowSurrogate(src[i])) {
+                codePoint = Character.toCodePoint((char) codePoint, src[i++]);
+            }
+
+            int leastByte = leastByteOf(codePoint);
+            if (leastByte == INVALID) {
+                if (lenient && isIgnorable(codePoint)) continue;
+                throw unknownCodePoint((o - dstOff) / 2 + 1, codePoint);
+            }
+
+            dst[o++] = (byte) codePoint;
+            if (leastByte != PADDING) {
+                dst[o++] = (byte) leastByte;
+            } else if (i != end && !(lenient && isIgnorableUntil(src, i, end))) {
+                throw afterPadding();
+            }
+        }
+
+        return o - dstOff;
+    }
+
+    /**
+     * Tells whether decoding the given number of chars in a single pass can use an output array of two bytes per char,
+     * which is the most any char decodes into.
+     */
+    private static boolean fitsOptimisticBuffer(int length) {
+        return length <= (Integer.MAX_VALUE - 8) / 2;
+    }
+
+    /**
+     * Returns the first length bytes of the given array, which is the array itself if it has exactly that length.
+     */
+    private static byte[] trim(byte[] buffer, int length) {
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Returns the length of the multibyte UTF-8 sequence beginning with the given lead byte, or 0 if it doesn't begin
+     * one. Every Base65536 code point takes three or four bytes in UTF-8, but two bytes sequences are decoded too, so
+     * that they are reported as unknown code points rather than as malformed UTF-8.
+     */
+    static int utf8SequenceLength(int lead) {
+        if ((lead & 0xE0) == 0xC0) return 2;
+        if ((lead & 0xF0) == 0xE0) return 3;
+        if ((lead & 0xF8) == 0xF0) return 4;
+        return 0;
+    }
+
+    /**
+     * Decodes the multibyte UTF-8 sequence at i, or returns -1 if the sequence is malformed or truncated.
+     */
+    static int utf8CodePointAt(byte[] src, int i, int end) {
+        int lead = Byte.toUnsignedInt(src[i]);
+        int sequenceLength = utf8SequenceLength(lead);
+        if (sequenceLength == 0 || end - i < sequenceLength) return -1;
+
+        int codePoint = lead & (0x3F >>> (sequenceLength - 1));
+        for (int j = i + 1; j < i + sequenceLength; j++) {
+            int b = src[j];
+            if ((b & 0xC0) != 0x80) return -1;
+            codePoint = codePoint << 6 | b & 0x3F;
+        }
+        return codePoint < minCodePointOf(sequenceLength) ? -1 : codePoint;
+    }
+
+    /**
+     * Returns the smallest code point the UTF-8 sequence of the given length may encode. Smaller ones are overlong
+     * forms, which are malformed.
+     */
+    private static int minCodePointOf(int sequenceLength) {
+        if (sequenceLength == 2) return 0x80;
+        return sequenceLength == 3 ? 0x800 : Character.MIN_SUPPLEMENTARY_CODE_POINT;
+    }
+
+    private static IllegalBase65536TextException malformedUtf8(long at) {
+        return new IllegalBase65536TextException("Malformed UTF-8 sequence at byte " + at + ".", STACK_TRACES);
+    }
+
+    private static IllegalBase65536TextException afterPadding() {
+        return new IllegalBase65536TextException("Base65536 sequence exists after padding byte.", STACK_TRACES);
+    }
+
+    private static IllegalBase65536TextException unknownCodePoint(long at, int codePoint) {
+        return new IllegalBase65536TextException(at, codePoint, STACK_TRACES);
+    }
+
+    /**
+     * Converts an error result of {@link #decode(ByteBuffer, ByteBuffer, boolean)} into the exception which the other
+     * decode methods throw for the same input.
+     * @param src the input array
+     * @param at the index of the input the error was reported at
+     * @param end the end of the input
+     * @param byteOffset the offset of the error from the beginning of the whole input
+     * @param decodedLength the number of bytes decoded before the error
+     */
+    private static IllegalBase65536TextException toException(
+        CoderResult result,
+        byte[] src,
+        int at,
+        int end,
+        long byteOffset,
+        long decodedLength
+    ) {
+        int codePoint = utf8CodePointAt(src, at, end);
+        if (result.isUnmappable()) return unknownCodePoint(decodedLength / 2 + 1, codePoint);
+        if (codePoint >= 0 && leastByteOf(codePoint) == PADDING) return afterPadding();
+        return malformedUtf8(byteOffset);
+    }
+
+    /**
+     * Converts an error result of {@link #decode(ByteBuffer, ByteBuffer, boolean)} at the position of the source buffer
+     * into the exception which the other decode methods throw for the same input.
+     * @param byteOffset the offset of the error from the beginning of the whole input
+     * @param decodedLength the number of bytes decoded before the error
+     */
+    static IllegalBase65536TextException toException(
+        CoderResult result,
+        ByteBuffer src,
+        long byteOffset,
+        long decodedLength
+    ) {
+        byte[] window = new byte[Math.min(4, src.remaining())];
+        src.get(src.position(), window);
+        return toException(result, window, 0, window.length, byteOffset, decodedLength);
+    }
+
+    /**
+     * Converts an error result of {@link #decode(CharBuffer, ByteBuffer, boolean)} at the position of the source buffer
+     * into the exception which the other decode methods throw for the same input.
+     * @param decodedLength the number of bytes decoded before the error
+     */
+    static IllegalBase65536TextException toException(CoderResult result, CharBuffer src, long decodedLength) {
+        if (result.isUnmappable()) return unknownCodePoint(decodedLength / 2 + 1, Character.codePointAt(src, 0));
+        return afterPadding();
+    }
+
+    private static int calcBufferLength(byte[] src, int off, int len, boolean lenient) {
+        int end = lenient ? trimTrailing(src, off, off + len) : off + len;
+        if (end == off) return 0;
+
+        int codePointCount = countUtf8CodePoints(src, off, end, lenient);
+        return endsWithPadding(src, off, end, codePointCount) ? codePointCount * 2 - 1 : codePointCount * 2;
+    }
+
+    /**
+     * Counts the code points in the given UTF-8 range by counting the bytes which are not continuation bytes, leaving
+     * out the bytes a lenient decoder skips.
+     */
+    private static int countUtf8CodePoints(byte[] src, int off, int end, boolean lenient) {
+        int codePointCount = CountingKernel.INSTANCE.countNonContinuationBytes(src, off, end);
+        if (!lenient) return codePointCount;
+
+        for (int i = off; i < end; i++) {
+            if (isIgnorable(src[i])) codePointCount--;
+        }
+        return codePointCount;
+    }
+
+    /**
+     * Validates the last code point of the given non-empty UTF-8 range and tells whether it is the padding code point.
+     */
+    private static boolean endsWithPadding(byte[] src, int off, int end, int codePointCount) {
+        int lastOffset = end - 1;
+        while (lastOffset > off && end - lastOffset < 4 && (src[lastOffset] & 0xC0) == 0x80) lastOffset--;
+
+        int lastCodePoint = utf8CodePointAt(src, lastOffset, end);
+        if (lastCodePoint < 0) throw malformedUtf8(lastOffset - off);
+
+        int leastByte = leastByteOf(lastCodePoint);
+        if (leastByte == INVALID) throw unknownCodePoint(codePointCount, lastCodePoint);
+        return leastByte == PADDING;
+    }
+
+    /**
+     * Decodes the UTF-8 encoded Base65536 text in the given range, writing the results to dst, starting at dstOff.
+     * The caller has to make sure dst has the space calculated by {@link #calcBufferLength(byte[], int, int, boolean)}.
+     * @return The number of bytes written to dst.
+     */
+    private static int decodeUtf8(byte[] src, int off, int len, byte[] dst, int dstOff, boolean lenient) {
+        return decodeUtf8(src, off, len, dst, dstOff, off, dstOff, lenient);
+    }
+
+    /**
+     * Decodes the UTF-8 encoded Base65536 text in the given range as a part of a larger text, which starts at srcBase
+     * in src and whose decoded bytes start at dstBase in dst, so that errors report the same byte and code point
+     * positions as decoding the whole text does.
+     * @return The number of bytes written to dst.
+     */
+    private static int decodeUtf8(
+        byte[] src,
+        int off,
+        int len,
+        byte[] dst,
+        int dstOff,
+        int srcBase,
+        int dstBase,
+        boolean lenient
+    ) {
+        int end = off + len;
+        int i = off;
+        int o = dstOff;
+
+        while (i < end) {
+            int lead = Byte.toUnsignedInt(src[i]);
+            int codePoint;
+
+            if ((lead & 0xF0) == 0xE0 && i + 2 < end) {
+                int b1 = src[i + 1];
+                int b2 = src[i + 2];
+                if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80) throw malformedUtf8(i - srcBase);
+
+                codePoint = (lead & 0x0F) << 12 | (b1 & 0x3F) << 6 | b2 & 0x3F;
+                i += 3;
+            } else if ((lead & 0xF8) == 0xF0 && i + 3 < end) {
+                int b1 = src[i + 1];
+                int b2 = src[i + 2];
+                int b3 = src[i + 3];
+                if ((b1 & 0xC0) != 0x80 || (b2 & 0xC0) != 0x80 || (b3 & 0xC0) != 0x80) throw malformedUtf8(i - srcBase);
+
+                codePoint = (lead & 0x07) << 18 | (b1 & 0x3F) << 12 | (b2 & 0x3F) << 6 | b3 & 0x3F;
+                if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) throw malformedUtf8(i - srcBase);
+                i += 4;
+            } else if ((lead & 0xE0) == 0xC0 && i + 1 < end) {
+                int b1 = src[i + 1];
+                if ((b1 & 0xC0) != 0x80 || lead < 0xC2) throw malformedUtf8(i - srcBase);
+
+                // Never a Base65536 code point, but valid UTF-8, so it is reported as an unknown code point below.
+                codePoint = (lead & 0x1F) << 6 | b1 & 0x3F;
+                i += 2;
+            } else if (lenient && isIgnorable(lead)) {
+                i++;
+                continue;
+            } else {
+                throw malformedUtf8(i - srcBase);
+            }
+
+            int leastByte = leastByteOf(codePoint);
+            if (leastByte == INVALID) throw unknownCodePoint((o - dstBase) / 2 + 1, codePoint);
+
+            dst[o++] = (byte) codePoint;
+            if (leastByte != PADDING) {
+                dst[o++] = (byte) leastByte;
+            } else if (i != end && !(lenient && isIgnorableUntil(src, i, end))) {
+                throw afterPadding();
+            }
+        }
+
+        return o - dstOff;
+    }
+
+    /**
+     * Returns the number of bytes that decoding the specified CharSequence results in, which is the exact size of the
+     * output byte array {@link #decode(CharSequence, int, int, byte[], int)} needs.<br>
+     * This method counts the code points in one pass and allocates nothing. Only the last code point is validated,
+     * since it tells whether the text ends with padding.
+     * @param src the CharSequence to decode
+     * @return The number of decoded bytes.
+     * @throws IllegalBase65536TextException if the last code point is not in valid Base65536 scheme.
+     */
+    public int decodedLength(CharSequence src) {
+        return calcBufferLength(src, 0, src.length(), lenient);
+    }
+
+    /**
+     * Returns the number of bytes that decoding the chars from start to end of the specified CharSequence results in.
+     * @param src the CharSequence to decode
+     * @param start the index of the first char to decode
+     * @param end the index after the last char to decode
+     * @return The number of decoded bytes.
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     * @throws IllegalBase65536TextException if the last code point is not in valid Base65536 scheme.
+     * @see #decodedLength(CharSequence)
+     */
+    public int decodedLength(CharSequence src, int start, int end) {
+        Objects.checkFromToIndex(start, end, src.length());
+        return calcBufferLength(src, start, end, lenient);
+    }
+
+    /**
+     * Returns the number of bytes that decoding the specified UTF-8 byte array results in, which is the exact size of
+     * the output byte array {@link #decode(byte[], byte[])} needs.<br>
+     * This method counts the UTF-8 lead bytes in one pass and allocates nothing. Only the last code point is
+     * validated, since it tells whether the text ends with padding.
+     * @param src the byte array to decode
+     * @return The number of decoded bytes.
+     * @throws IllegalBase65536TextException if the last code point is not in valid Base65536 scheme.
+     */
+    public int decodedLength(byte[] src) {
+        return calcBufferLength(src, 0, src.length, lenient);
+    }
+
+    /**
+     * Returns the number of bytes that decoding len bytes of the specified UTF-8 byte array starting at off results
+     * in.
+     * @param src the byte array to decode
+     * @param off the start offset in src
+     * @param len the number of bytes to decode
+     * @return The number of decoded bytes.
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     * @throws IllegalBase65536TextException if the last code point is not in valid Base65536 scheme.
+     * @see #decodedLength(byte[])
+     */
+    public int decodedLength(byte[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        return calcBufferLength(src, off, len, lenient);
+    }
+
+    /**
+     * Tells whether the specified CharSequence can be decoded, checking the same rules as {@link #decode(String)}
+     * in one pass without allocating anything.
+     * @param src the CharSequence to validate
+     * @return true if src is in valid Base65536 scheme.
+     */
+    public boolean isValid(CharSequence src) {
+        return validateChars(src, 0, src.length(), lenient) == VALID;
+    }
+
+    /**
+     * Tells whether the specified UTF-8 byte array can be decoded, checking the same rules as {@link #decode(byte[])}
+     * in one pass without allocating anything.
+     * @param src the byte array to validate
+     * @return true if src is in valid Base65536 scheme.
+     */
+    public boolean isValid(byte[] src) {
+        return validateUtf8(src, 0, src.length, lenient) == VALID;
+    }
+
+    /**
+     * Validates the specified CharSequence in one pass, checking the same rules as {@link #decode(String)}.<br>
+     * Nothing is allocated for valid input; for invalid input a result telling the kind and the char index of the
+     * first error is returned instead of an exception being thrown.
+     * @param src the CharSequence to validate
+     * @return The result of the validation.
+     */
+    public Base65536ValidationResult validate(CharSequence src) {
+        return toValidationResult(validateChars(src, 0, src.length(), lenient));
+    }
+
+    /**
+     * Validates the specified UTF-8 byte array in one pass, checking the same rules as {@link #decode(byte[])}.<br>
+     * Nothing is allocated for valid input; for invalid input a result telling the kind and the byte offset of the
+     * first error is returned instead of an exception being thrown.
+     * @param src the byte array to validate
+     * @return The result of the validation.
+     */
+    public Base65536ValidationResult validate(byte[] src) {
+        return toValidationResult(validateUtf8(src, 0, src.length, lenient));
+    }
+
+    /**
+     * Decodes the specified CharSequence into a newly-allocated byte array using the {@link Base65536} encoding
+     * scheme, without throwing for invalid text.<br>
+     * The text is validated first, in the same way as by {@link #validate(CharSequence)}, and only decoded if it is
+     * valid. Invalid text, for example garbage from untrusted clients, costs a validation pass and a small result
+     * object, but no exception and no stack trace.
+     * @param src the CharSequence to decode
+     * @return The decoded bytes, or the kind and the char index of the first error.
+     */
+    public Base65536DecodeResult tryDecode(CharSequence src) {
+        int length = src.length();
+        long validation = validateChars(src, 0, length, lenient);
+        if (validation != VALID) return Base65536DecodeResult.failure(toValidationResult(validation));
+
+        byte[] dst = new byte[calcBufferLength(src, 0, length, lenient)];
+        decodeChars(src, 0, length, dst, 0, lenient);
+        return Base65536DecodeResult.success(dst);
+    }
+
+    /**
+     * Decodes all bytes from the input UTF-8 byte array into a newly-allocated byte array using the {@link Base65536}
+     * encoding scheme, without throwing for invalid text, in the same way as {@link #tryDecode(CharSequence)}.
+     * @param src the byte array to decode
+     * @return The decoded bytes, or the kind and the byte offset of the first error.
+     */
+    public Base65536DecodeResult tryDecode(byte[] src) {
+        return tryDecode(src, 0, src.length);
+    }
+
+    /**
+     * Decodes len bytes from the input UTF-8 byte array starting at off into a newly-allocated byte array using the
+     * {@link Base65536} encoding scheme, without throwing for invalid text, in the same way as
+     * {@link #tryDecode(CharSequence)}.
+     * @param src the byte array to decode
+     * @param off the start offset in src
+     * @param len the number of bytes to decode
+     * @return The decoded bytes, or the kind and the offset of the first error from off.
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     */
+    public Base65536DecodeResult tryDecode(byte[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        long validation = validateUtf8(src, off, len, lenient);
+        if (validation != VALID) return Base65536DecodeResult.failure(toValidationResult(validation));
+
+        return Base65536DecodeResult.success(decodeToArray(src, off, len));
+    }
+
+    private static final long VALID = -1;
+
+    /**
+     * Packs the kind and the position of an error into a long, so that validation loops don't allocate.
+     */
+    private static long validationError(Base65536ValidationResult.Error error, int position) {
+        return (long) error.ordinal() << 32 | position;
+    }
+
+    private static Base65536ValidationResult toValidationResult(long validation) {
+        if (validation == VALID) return Base65536ValidationResult.VALID;
+        return Base65536ValidationResult.invalid(
+            Base65536ValidationResult.Error.values()[(int) (validation >>> 32)],
+            (int) validation
+        );
+    }
+
+    private static long validateChars(CharSequence src, int start, int end, boolean lenient) {
+        for (int i = start; i < end; ) {
+            int at = i;
+            int codePoint = src.charAt(i++);
+            if (Character.isHighSurrogate((char) codePoint) && i < end) {
+                char low = src.charAt(i);
+                if (Character.isLowSurrogate(low)) {
+                    codePoint = Character.toCodePoint((char) codePoint, low);
+                    i++;
+                }
+            }
+
+            int leastByte = leastByteOf(codePoint);
+            if (leastByte == INVALID) {
+                if (lenient && isIgnorable(codePoint)) continue;
+                return validationError(Base65536ValidationResult.Error.UNKNOWN_CODE_POINT, at - start);
             }
+            if (leastByte == PADDING && i != end && !(lenient && isIgnorableUntil(src, i, end)))
+                return validationError(Base65536ValidationResult.Error.DATA_AFTER_PADDING, i - start);
         }
-    };
 
-    private static int calcBufferLength(String src) {
-        int srcCodePointCount = src.codePointCount(0, src.length());
-        int offset = src.offsetByCodePoints(0, srcCodePointCount -1);
-        int lastCodePoint = src.codePointAt(offset);
-        int codeBlock = lastCodePoint - (lastCodePoint & 0xff);
+        return VALID;
+    }
+
+    private static long validateUtf8(byte[] src, int off, int len, boolean lenient) {
+        int end = off + len;
+
+        for (int i = off; i < end; ) {
+            if (lenient && isIgnorable(src[i])) {
+                i++;
+                continue;
+            }
+
+            int codePoint = utf8CodePointAt(src, i, end);
+            if (codePoint < 0) return validationError(Base65536ValidationResult.Error.MALFORMED_UTF8, i - off);
 
-        Integer leastByte = TABLE.get(codeBlock);
-        if (leastByte == null && codeBlock != Base65536Encoder.PAD)
-            throw new IllegalBase65536TextException(src.length(), lastCodePoint);
+            int leastByte = leastByteOf(codePoint);
+            if (leastByte == INVALID)
+                return validationError(Base65536ValidationResult.Error.UNKNOWN_CODE_POINT, i - off);
+
+            i += codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT ? 3 : 4;
+            if (leastByte == PADDING && i != end && !(lenient && isIgnorableUntil(src, i, end)))
+                return validationError(Base65536ValidationResult.Error.DATA_AFTER_PADDING, i - off);
+        }
 
-        return codeBlock == Base65536Encoder.PAD ? srcCodePointCount * 2 - 1 : srcCodePointCount * 2;
+        return VALID;
     }
 
     /**
@@ -49,7 +714,31 @@ public class Base65536Decoder {
      * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
      */
     public byte[] decode(byte[] src) {
-        return decode(new String(src, StandardCharsets.UTF_8));
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.ARRAY, src.length);
+        try {
+            byte[] dst = decodeToArray(src, 0, src.length);
+            if (probe != null) probe.end(src.length, dst.length);
+            return dst;
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(src.length, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes the given UTF-8 range into a newly-allocated array. A strict decoder sizes the array exactly first. A
+     * lenient one decodes in a single pass into an array sized for two bytes per three input bytes, the most a code
+     * point decodes into, and trims it once at the end, so the skipped bytes are never counted.
+     */
+    private byte[] decodeToArray(byte[] src, int off, int len) {
+        if (!lenient) {
+            byte[] dst = new byte[calcBufferLength(src, off, len, false)];
+            decodeUtf8(src, off, len, dst, 0, false);
+            return dst;
+        }
+
+        byte[] dst = new byte[len / 3 * 2];
+        return trim(dst, decodeUtf8(src, off, len, dst, 0, true));
     }
 
     /**
@@ -65,32 +754,304 @@ public class Base65536Decoder {
      * @throws BufferTooSmallException if dst does not have enough space for decoding all input bytes.
      */
     public int decode(byte[] src, byte[] dst) {
-        String srcString = new String(src, StandardCharsets.UTF_8);
-        int bufferLength = calcBufferLength(srcString);
+        return decode(src, 0, src.length, dst, 0);
+    }
 
-        if (dst.length < bufferLength) throw new BufferTooSmallException(bufferLength, dst.length);
+    /**
+     * Decodes len bytes from the input byte array starting at off using the {@link Base65536} encoding scheme, writing
+     * the results into the given output byte array, starting at dstOff.<br>
+     * It is the responsibility of the invoker of this method to make sure the output byte array dst has enough space
+     * for decoding all bytes from the input range. No bytes will be written to the output byte array if the output
+     * byte array is not big enough.
+     * @param src the byte array to decode
+     * @param off the start offset in src
+     * @param len the number of bytes to decode
+     * @param dst the output byte array
+     * @param dstOff the start offset in dst
+     * @return The number of bytes written to the output byte array
+     * @throws IndexOutOfBoundsException if the range of src or dstOff is out of bounds.
+     * @throws IllegalBase65536TextException if the range of src is not in valid Base65536 scheme.
+     * @throws BufferTooSmallException if dst does not have enough space for decoding all input bytes.
+     */
+    public int decode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        Objects.checkIndex(dstOff, dst.length + 1);
 
-        byte[] result = decode(srcString);
-        System.arraycopy(result, 0, dst, 0, bufferLength);
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.ARRAY, len);
+        try {
+            int bufferLength = calcBufferLength(src, off, len, lenient);
+            if (dst.length - dstOff < bufferLength) throw new BufferTooSmallException(bufferLength, dst.length - dstOff);
 
-        return bufferLength;
+            int written = decodeUtf8(src, off, len, dst, dstOff, lenient);
+            if (probe != null) probe.end(len, written);
+            return written;
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(len, e);
+            throw e;
+        }
     }
 
     /**
-     * Decodes all bytes from the input byte buffer using the {@link Base65536} encoding scheme, writing the results
-     * into a newly-allocated ByteBuffer.<br>
-     * Unpon return, the source buffer's position will be updated to its limit; its limit will not have been changed.
-     * The returned output buffer's position will be zero and its limit will be the number of resulting decoded bytes.
-     * IllegalBase65536TextException is thrown if the input buffer is not in valid Base65536 encoding scheme.
-     * The Position of the input buffer will not be advanced in this case.
-     * @param buffer the ByteBuffer to decode
+     * Decodes the chars from start to end of the input CharSequence using the {@link Base65536} encoding scheme,
+     * writing the results into the given output byte array, starting at dstOff.<br>
+     * It is the responsibility of the invoker of this method to make sure the output byte array dst has enough space
+     * for decoding all chars from the input range. No bytes will be written to the output byte array if the output
+     * byte array is not big enough.
+     * @param src the CharSequence to decode
+     * @param start the index of the first char to decode
+     * @param end the index after the last char to decode
+     * @param dst the output byte array
+     * @param dstOff the start offset in dst
+     * @return The number of bytes written to the output byte array
+     * @throws IndexOutOfBoundsException if the range of src or dstOff is out of bounds.
+     * @throws IllegalBase65536TextException if the range of src is not in valid Base65536 scheme.
+     * @throws BufferTooSmallException if dst does not have enough space for decoding all input chars.
+     */
+    public int decode(CharSequence src, int start, int end, byte[] dst, int dstOff) {
+        Objects.checkFromToIndex(start, end, src.length());
+        Objects.checkIndex(dstOff, dst.length + 1);
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, end - start);
+        try {
+            int bufferLength = calcBufferLength(src, start, end, lenient);
+            if (dst.length - dstOff < bufferLength) throw new BufferTooSmallException(bufferLength, dst.length - dstOff);
+
+            int written = decodeChars(src, start, end, dst, dstOff, lenient);
+            if (probe != null) probe.end(end - start, written);
+            return written;
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(end - start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes all bytes from the input byte buffer using the {@link Base65536} encoding scheme, writing the results
+     * into a newly-allocated ByteBuffer.<br>
+     * Unpon return, the source buffer's position will be updated to its limit; its limit will not have been changed.
+     * The returned output buffer's position will be zero and its limit will be the number of resulting decoded bytes.
+     * IllegalBase65536TextException is thrown if the input buffer is not in valid Base65536 encoding scheme.
+     * The Position of the input buffer will not be advanced in this case.
+     * @param buffer the ByteBuffer to decode
      * @return A newly-allocated byte buffer containing the decoded bytes
      * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
      */
     public ByteBuffer decode(ByteBuffer buffer) {
-        byte[] src = new byte[buffer.remaining()];
-        buffer.get(src);
-        return ByteBuffer.wrap(decode(src));
+        byte[] src;
+        int off;
+        int len = buffer.remaining();
+
+        if (buffer.hasArray()) {
+            src = buffer.array();
+            off = buffer.arrayOffset() + buffer.position();
+        } else {
+            src = new byte[len];
+            off = 0;
+            buffer.get(buffer.position(), src);
+        }
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.BUFFER, len);
+        byte[] dst;
+        try {
+            dst = decodeToArray(src, off, len);
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(len, e);
+            throw e;
+        }
+
+        buffer.position(buffer.limit());
+        if (probe != null) probe.end(len, dst.length);
+        return ByteBuffer.wrap(dst);
+    }
+
+    /**
+     * Decodes as many bytes as possible from the source buffer using the {@link Base65536} encoding scheme, writing
+     * the results to the destination buffer, in the same manner as
+     * {@link java.nio.charset.CharsetDecoder#decode(ByteBuffer, java.nio.CharBuffer, boolean)}.<br>
+     * The positions of both buffers are advanced by the number of bytes read and written; their limits are not changed.
+     * Both heap and direct buffers are accessed in place and nothing is allocated, so this method can be invoked
+     * repeatedly, for example in a selector loop, while compacting and refilling the buffers in between.<br>
+     * A UTF-8 sequence cut off by the end of the source buffer is left in it when endOfInput is false. So is the padding
+     * code point, because it may only be decoded once it is known that no data follows it.<br>
+     * When malformed input is found, the position of the source buffer is left at its beginning.
+     * @param src the source buffer
+     * @param dst the destination buffer
+     * @param endOfInput true if, and only if, the invoker can provide no additional input bytes beyond those in the
+     *                   given buffer
+     * @return {@link CoderResult#UNDERFLOW} if as much input as possible was decoded, {@link CoderResult#OVERFLOW} if
+     *         there is insufficient room in the destination buffer to decode the next code point, a malformed-input
+     *         result if the input is not in valid UTF-8 or the padding code point is followed by data, or an
+     *         unmappable-character result if a code point is out of the Base65536 code blocks.
+     */
+    public CoderResult decode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) return decodeArrayLoop(src, dst, endOfInput, lenient);
+        return decodeBufferLoop(src, dst, endOfInput, lenient);
+    }
+
+    private static CoderResult decodeArrayLoop(ByteBuffer src, ByteBuffer dst, boolean endOfInput, boolean lenient) {
+        byte[] sa = src.array();
+        int sp = src.arrayOffset() + src.position();
+        int sl = src.arrayOffset() + src.limit();
+        byte[] da = dst.array();
+        int dp = dst.arrayOffset() + dst.position();
+        int dl = dst.arrayOffset() + dst.limit();
+
+        try {
+            while (sp < sl) {
+                if (lenient && isIgnorable(sa[sp])) {
+                    sp++;
+                    continue;
+                }
+
+                int sequenceLength = utf8SequenceLength(Byte.toUnsignedInt(sa[sp]));
+                if (sequenceLength == 0) return CoderResult.malformedForLength(1);
+                if (sl - sp < sequenceLength)
+                    return endOfInput ? CoderResult.malformedForLength(sl - sp) : CoderResult.UNDERFLOW;
+
+                int codePoint = utf8CodePointAt(sa, sp, sl);
+                if (codePoint < 0) return CoderResult.malformedForLength(sequenceLength);
+
+                int leastByte = leastByteOf(codePoint);
+                if (leastByte == INVALID) return CoderResult.unmappableForLength(sequenceLength);
+
+                if (leastByte == PADDING) {
+                    if (sp + sequenceLength != sl && !(lenient && isIgnorableUntil(sa, sp + sequenceLength, sl)))
+                        return CoderResult.malformedForLength(sequenceLength);
+                    if (!endOfInput) return CoderResult.UNDERFLOW;
+                    if (dl - dp < 1) return CoderResult.OVERFLOW;
+                    da[dp++] = (byte) codePoint;
+                    sp = sl - sequenceLength;
+                } else {
+                    if (dl - dp < 2) return CoderResult.OVERFLOW;
+                    da[dp++] = (byte) codePoint;
+                    da[dp++] = (byte) leastByte;
+                }
+                sp += sequenceLength;
+            }
+
+            return CoderResult.UNDERFLOW;
+        } finally {
+            src.position(sp - src.arrayOffset());
+            dst.position(dp - dst.arrayOffset());
+        }
+    }
+
+    private static CoderResult decodeBufferLoop(ByteBuffer src, ByteBuffer dst, boolean endOfInput, boolean lenient) {
+        int sp = src.position();
+        int sl = src.limit();
+        int dp = dst.position();
+        int dl = dst.limit();
+
+        try {
+            while (sp < sl) {
+                if (lenient && isIgnorable(src.get(sp))) {
+                    sp++;
+                    continue;
+                }
+
+                int lead = Byte.toUnsignedInt(src.get(sp));
+                int sequenceLength = utf8SequenceLength(lead);
+                if (sequenceLength == 0) return CoderResult.malformedForLength(1);
+                if (sl - sp < sequenceLength)
+                    return endOfInput ? CoderResult.malformedForLength(sl - sp) : CoderResult.UNDERFLOW;
+
+                int codePoint = lead & (0x3F >>> (sequenceLength - 1));
+                for (int i = sp + 1; i < sp + sequenceLength; i++) {
+                    int b = src.get(i);
+                    if ((b & 0xC0) != 0x80) return CoderResult.malformedForLength(sequenceLength);
+                    codePoint = codePoint << 6 | b & 0x3F;
+                }
+                if (codePoint < minCodePointOf(sequenceLength)) return CoderResult.malformedForLength(sequenceLength);
+
+                int leastByte = leastByteOf(codePoint);
+                if (leastByte == INVALID) return CoderResult.unmappableForLength(sequenceLength);
+
+                if (leastByte == PADDING) {
+                    if (sp + sequenceLength != sl && !(lenient && isIgnorableUntil(src, sp + sequenceLength, sl)))
+                        return CoderResult.malformedForLength(sequenceLength);
+                    if (!endOfInput) return CoderResult.UNDERFLOW;
+                    if (dl - dp < 1) return CoderResult.OVERFLOW;
+                    dst.put(dp++, (byte) codePoint);
+                    sp = sl - sequenceLength;
+                } else {
+                    if (dl - dp < 2) return CoderResult.OVERFLOW;
+                    dst.put(dp++, (byte) codePoint);
+                    dst.put(dp++, (byte) leastByte);
+                }
+                sp += sequenceLength;
+            }
+
+            return CoderResult.UNDERFLOW;
+        } finally {
+            src.position(sp);
+            dst.position(dp);
+        }
+    }
+
+    /**
+     * Decodes as many chars as possible from the source buffer using the {@link Base65536} encoding scheme, writing the
+     * results to the destination buffer, in the same manner as {@link #decode(ByteBuffer, ByteBuffer, boolean)}.<br>
+     * A high surrogate at the end of the source buffer is left in it when endOfInput is false. So is the padding code
+     * point, because it may only be decoded once it is known that no data follows it.
+     * @param src the source buffer
+     * @param dst the destination buffer
+     * @param endOfInput true if, and only if, the invoker can provide no additional input chars beyond those in the
+     *                   given buffer
+     * @return {@link CoderResult#UNDERFLOW} if as much input as possible was decoded, {@link CoderResult#OVERFLOW} if
+     *         there is insufficient room in the destination buffer to decode the next code point, a malformed-input
+     *         result if the padding code point is followed by data, or an unmappable-character result if a code point
+     *         is out of the Base65536 code blocks.
+     */
+    public CoderResult decode(CharBuffer src, ByteBuffer dst, boolean endOfInput) {
+        int sp = src.position();
+        int sl = src.limit();
+        int dp = dst.position();
+        int dl = dst.limit();
+
+        try {
+            while (sp < sl) {
+                char c = src.get(sp);
+                if (lenient && isIgnorable(c)) {
+                    sp++;
+                    continue;
+                }
+
+                int codePoint = c;
+                int charCount = 1;
+                if (Character.isHighSurrogate(c)) {
+                    if (sl - sp < 2) {
+                        if (endOfInput) return CoderResult.unmappableForLength(1);
+                        return CoderResult.UNDERFLOW;
+                    }
+                    if (Character.isLowSurrogate(src.get(sp + 1))) {
+                        codePoint = Character.toCodePoint(c, src.get(sp + 1));
+                        charCount = 2;
+                    }
+                }
+
+                int leastByte = leastByteOf(codePoint);
+                if (leastByte == INVALID) return CoderResult.unmappableForLength(charCount);
+
+                if (leastByte == PADDING) {
+                    if (sp + charCount != sl && !(lenient && isIgnorableUntil(src, sp + charCount, sl)))
+                        return CoderResult.malformedForLength(charCount);
+                    if (!endOfInput) return CoderResult.UNDERFLOW;
+                    if (dl - dp < 1) return CoderResult.OVERFLOW;
+                    dst.put(dp++, (byte) codePoint);
+                    sp = sl - charCount;
+                } else {
+                    if (dl - dp < 2) return CoderResult.OVERFLOW;
+                    dst.put(dp++, (byte) codePoint);
+                    dst.put(dp++, (byte) leastByte);
+                }
+                sp += charCount;
+            }
+
+            return CoderResult.UNDERFLOW;
+        } finally {
+            src.position(sp);
+            dst.position(dp);
+        }
     }
 
     /**
@@ -100,33 +1061,1094 @@ public class Base65536Decoder {
      * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme
      */
     public byte[] decode(String src) {
-        if (src.isEmpty()) return new byte[0];
+        int length = src.length();
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, length);
+        try {
+            byte[] dst = decodeString(src);
+            if (probe != null) probe.end(length, dst.length);
+            return dst;
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(length, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes a String in a single pass into an array sized for two bytes per char, unless that could exceed the maximum
+     * array length.
+     */
+    private byte[] decodeString(String src) {
+        int length = src.length();
+        if (!fitsOptimisticBuffer(length)) {
+            byte[] buffer = new byte[calcBufferLength(src, 0, length, lenient)];
+            decodeChars(src, 0, length, buffer, 0, lenient);
+            return buffer;
+        }
+
+        byte[] buffer = new byte[length * 2];
+        return trim(buffer, decodeChars(src, 0, length, buffer, 0, lenient));
+    }
+
+    /**
+     * Decodes len chars of the specified char array starting at off into a newly-allocated byte array using the
+     * {@link Base65536} encoding scheme.<br>
+     * The chars are decoded in a single pass into an array sized for two bytes per char, which is trimmed once at the
+     * end if the text contains surrogate pairs or ends with the padding code point.
+     * @param src the char array to decode
+     * @param off the start offset in src
+     * @param len the number of chars to decode
+     * @return A newly-allocated byte array containing the decoded bytes.
+     * @throws IllegalBase65536TextException if the range of src is not in valid Base65536 scheme
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     * @see #decode(String)
+     */
+    public byte[] decode(char[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, len);
+        try {
+            byte[] dst = decodeCharArray(src, off, len);
+            if (probe != null) probe.end(len, dst.length);
+            return dst;
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(len, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes a range of a char array in the same way as {@link #decodeString(String)}.
+     */
+    private byte[] decodeCharArray(char[] src, int off, int len) {
+        if (!fitsOptimisticBuffer(len)) {
+            byte[] buffer = new byte[calcBufferLength(CharBuffer.wrap(src), off, off + len, lenient)];
+            decodeChars(src, off, off + len, buffer, 0, lenient);
+            return buffer;
+        }
+
+        byte[] buffer = new byte[len * 2];
+        return trim(buffer, decodeChars(src, off, off + len, buffer, 0, lenient));
+    }
+
+    /**
+     * Decodes all bytes from the input UTF-8 byte array into a newly-allocated byte array using the {@link Base65536}
+     * encoding scheme, splitting the work over the {@link ForkJoinPool#commonPool() common pool}.
+     * @param src the byte array to decode
+     * @return A newly-allocated byte array containing the decoded bytes.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     * @see #decodeParallel(byte[], ForkJoinPool)
+     */
+    public byte[] decodeParallel(byte[] src) {
+        return decodeParallel(src, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Decodes all bytes from the input UTF-8 byte array into a newly-allocated byte array using the {@link Base65536}
+     * encoding scheme, splitting the work over the given pool.<br>
+     * The input is split into chunks at UTF-8 lead bytes. The code points of every chunk are counted in parallel first,
+     * then every chunk is decoded into its own range of the output. Small inputs are decoded on the calling thread, in
+     * the same way as {@link #decode(byte[])}.
+     * @param src the byte array to decode
+     * @param pool the pool to run the work on
+     * @return A newly-allocated byte array containing the decoded bytes.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     */
+    public byte[] decodeParallel(byte[] src, ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        if (src.length < ParallelSupport.THRESHOLD) return decode(src);
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.PARALLEL, src.length);
+        try {
+            byte[] dst = decodeChunks(src, pool);
+            if (probe != null) probe.end(src.length, dst.length);
+            return dst;
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(src.length, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes an input too large for the calling thread chunk by chunk over the pool.
+     */
+    private byte[] decodeChunks(byte[] src, ForkJoinPool pool) {
+        int length = lenient ? trimTrailing(src, 0, src.length) : src.length;
+        if (length == 0) return new byte[0];
+
+        int chunkLength = ParallelSupport.chunkLength(length, pool);
+        int chunkCount = ParallelSupport.chunkCount(length, chunkLength);
 
-        int srcCodePointCount = src.codePointCount(0, src.length());
-        byte[] buffer = new byte[calcBufferLength(src)];
+        int[] bounds = new int[chunkCount + 1];
+        for (int k = 1; k < chunkCount; k++) {
+            int bound = k * chunkLength;
+            for (int i = 0; i < 3 && (src[bound] & 0xC0) == 0x80; i++) bound++;
+            bounds[k] = bound;
+        }
+        bounds[chunkCount] = length;
 
-        AtomicInteger atomicI = new AtomicInteger();
-        src.codePoints().forEachOrdered(codePoint -> {
-            int i = atomicI.getAndIncrement();
-            int mostByte = codePoint & 0xFF;
-            int codeBlock = codePoint - mostByte;
+        int[] offsets = new int[chunkCount + 1];
+        ParallelSupport.invokeAll(pool, chunkCount, k ->
+            offsets[k + 1] = countUtf8CodePoints(src, bounds[k], bounds[k + 1], lenient)
+        );
+        for (int k = 0; k < chunkCount; k++) offsets[k + 1] += offsets[k];
 
-            Integer leastByte = TABLE.get(codeBlock);
-            if (leastByte == null && codeBlock != Base65536Encoder.PAD)
-                throw new IllegalBase65536TextException(i + 1, codePoint);
+        int codePointCount = offsets[chunkCount];
+        boolean padded = endsWithPadding(src, 0, length, codePointCount);
+        byte[] dst = new byte[padded ? codePointCount * 2 - 1 : codePointCount * 2];
 
-            buffer[i * 2] = (byte) mostByte;
-            if (codeBlock != Base65536Encoder.PAD) {
-                buffer[i * 2 + 1] = leastByte.byteValue();
-            } else if (i != srcCodePointCount -1) {
-                throw new IllegalBase65536TextException("Base65536 sequence exists after padding byte.");
+        IllegalBase65536TextException[] errors = new IllegalBase65536TextException[chunkCount];
+        ParallelSupport.invokeAll(pool, chunkCount, k -> {
+            try {
+                int written = decodeUtf8(src, bounds[k], bounds[k + 1] - bounds[k], dst, offsets[k] * 2, 0, 0, lenient);
+                if (k < chunkCount - 1 && written != (offsets[k + 1] - offsets[k]) * 2) throw afterPadding();
+            } catch (IllegalBase65536TextException e) {
+                errors[k] = e;
             }
         });
+        throwFirst(errors);
+
+        return dst;
+    }
 
+    /**
+     * Decodes a Base65536 encoded CharSequence into a newly-allocated byte array using the {@link Base65536} encoding
+     * scheme, splitting the work over the {@link ForkJoinPool#commonPool() common pool}.
+     * @param src the CharSequence to decode
+     * @return A newly-allocated byte array containing the decoded bytes.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     * @see #decodeParallel(CharSequence, ForkJoinPool)
+     */
+    public byte[] decodeParallel(CharSequence src) {
+        return decodeParallel(src, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Decodes a Base65536 encoded CharSequence into a newly-allocated byte array using the {@link Base65536} encoding
+     * scheme, splitting the work over the given pool.<br>
+     * The input is split into chunks at code point boundaries, never between the chars of a surrogate pair, and then
+     * processed in the same way as {@link #decodeParallel(byte[], ForkJoinPool)}. The CharSequence must not be
+     * modified while it is decoded.
+     * @param src the CharSequence to decode
+     * @param pool the pool to run the work on
+     * @return A newly-allocated byte array containing the decoded bytes.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     */
+    public byte[] decodeParallel(CharSequence src, ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        int length = src.length();
+        boolean small = length < ParallelSupport.THRESHOLD;
+        Base65536Metrics.Probe probe =
+            probe(small ? Base65536Metrics.Mode.STRING : Base65536Metrics.Mode.PARALLEL, length);
+        try {
+            byte[] dst = small ? decodeSmall(src, length) : decodeChunks(src, length, pool);
+            if (probe != null) probe.end(length, dst.length);
+            return dst;
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(length, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes an input too small to split on the calling thread.
+     */
+    private byte[] decodeSmall(CharSequence src, int length) {
+        byte[] buffer = new byte[calcBufferLength(src, 0, length, lenient)];
+        decodeChars(src, 0, length, buffer, 0, lenient);
         return buffer;
     }
 
+    /**
+     * Decodes the first length chars of an input too large for the calling thread chunk by chunk over the pool.
+     */
+    private byte[] decodeChunks(CharSequence src, int length, ForkJoinPool pool) {
+        if (lenient) length = trimTrailing(src, 0, length);
+        if (length == 0) return new byte[0];
+
+        int chunkLength = ParallelSupport.chunkLength(length, pool);
+        int chunkCount = ParallelSupport.chunkCount(length, chunkLength);
+
+        int[] bounds = new int[chunkCount + 1];
+        for (int k = 1; k < chunkCount; k++) {
+            int bound = k * chunkLength;
+            if (Character.isLowSurrogate(src.charAt(bound)) && Character.isHighSurrogate(src.charAt(bound - 1))) bound++;
+            bounds[k] = bound;
+        }
+        bounds[chunkCount] = length;
+
+        int[] offsets = new int[chunkCount + 1];
+        ParallelSupport.invokeAll(pool, chunkCount, k ->
+            offsets[k + 1] = countCodePoints(src, bounds[k], bounds[k + 1], lenient)
+        );
+        for (int k = 0; k < chunkCount; k++) offsets[k + 1] += offsets[k];
+
+        int codePointCount = offsets[chunkCount];
+        boolean padded = endsWithPadding(src, 0, length, codePointCount);
+        byte[] dst = new byte[padded ? codePointCount * 2 - 1 : codePointCount * 2];
+
+        IllegalBase65536TextException[] errors = new IllegalBase65536TextException[chunkCount];
+        ParallelSupport.invokeAll(pool, chunkCount, k -> {
+            try {
+                int written = decodeChars(src, bounds[k], bounds[k + 1], dst, offsets[k] * 2, 0, lenient);
+                if (k < chunkCount - 1 && written != (offsets[k + 1] - offsets[k]) * 2) throw afterPadding();
+            } catch (IllegalBase65536TextException e) {
+                errors[k] = e;
+            }
+        });
+        throwFirst(errors);
+
+        return dst;
+    }
+
+    /**
+     * Throws the error of the first failed chunk, which is the one decoding the whole input sequentially would throw,
+     * whichever chunk failed first in time.
+     */
+    private static void throwFirst(IllegalBase65536TextException[] errors) {
+        for (IllegalBase65536TextException error : errors) {
+            if (error != null) throw error;
+        }
+    }
+
+    /**
+     * Decodes every UTF-8 message of the list using the {@link Base65536} encoding scheme, writing the results back to
+     * back into a single newly-allocated byte array.<br>
+     * The decoded length of every message is calculated first, then every message is decoded at its offset, so the
+     * cost per message is close to the one of the decoding loop itself.
+     * @param messages the byte arrays to decode
+     * @return The batch of the decoded messages, in the order of the list.
+     * @throws IllegalBase65536TextException if any of the messages is not in valid Base65536 scheme.
+     */
+    public Base65536Batch decodeBatch(List<byte[]> messages) {
+        return decodeBatch(messages.toArray(new byte[0][]), null);
+    }
+
+    /**
+     * Decodes every UTF-8 message of the list in the same way as {@link #decodeBatch(List)}, splitting the work over
+     * the given pool in chunks of consecutive messages. Small batches are decoded on the calling thread.
+     * @param messages the byte arrays to decode
+     * @param pool the pool to run the work on
+     * @return The batch of the decoded messages, in the order of the list.
+     * @throws IllegalBase65536TextException if any of the messages is not in valid Base65536 scheme.
+     */
+    public Base65536Batch decodeBatch(List<byte[]> messages, ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        return decodeBatch(messages.toArray(new byte[0][]), pool);
+    }
+
+    /**
+     * Decodes the messages on the pool, or on the calling thread if pool is null or the batch is small.
+     */
+    private Base65536Batch decodeBatch(byte[][] src, ForkJoinPool pool) {
+        long inputLength = 0;
+        for (byte[] message : src) inputLength += message.length;
+        ForkJoinPool workers = inputLength < ParallelSupport.THRESHOLD ? null : pool;
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.BATCH, inputLength);
+        try {
+            int[] offsets = new int[src.length + 1];
+            ParallelSupport.forEachMessage(workers, src.length, i ->
+                offsets[i + 1] = calcBufferLength(src[i], 0, src[i].length, lenient)
+            );
+
+            long length = 0;
+            for (int i = 0; i < src.length; i++) {
+                length += offsets[i + 1];
+                offsets[i + 1] = Base65536Encoder.toArrayLength(length);
+            }
+
+            byte[] dst = new byte[offsets[src.length]];
+            ParallelSupport.forEachMessage(workers, src.length, i ->
+                decodeUtf8(src[i], 0, src[i].length, dst, offsets[i], lenient)
+            );
+
+            if (probe != null) probe.end(inputLength, dst.length);
+            return new Base65536Batch(dst, offsets);
+        } catch (RuntimeException e) {
+            if (probe != null) probe.fail(inputLength, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes all bytes of the input UTF-8 file using the {@link Base65536} encoding scheme, writing the results to the
+     * output file. The output file is created, or truncated if it already exists.<br>
+     * Both files are accessed through memory-mapped windows and staged through small fixed-size buffers, so files
+     * larger than an array can be decoded with constant heap use. The input file is read twice: once to calculate
+     * the exact size of the output file, and once to decode it.<br>
+     * If the input file is not in valid Base65536 scheme, the output file is truncated to the bytes decoded before the
+     * invalid part, so that it doesn't keep the zero-filled space reserved for the rest of the output.
+     * The input file must not be modified while it is decoded.
+     * @param in the path of the file to decode
+     * @param out the path of the file to write the decoded bytes to
+     * @return The number of bytes written to the output file.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalBase65536TextException if the input file is not in valid Base65536 scheme.
+     */
+    public long decode(Path in, Path out) throws IOException {
+        Base65536Metrics.Probe probe = null;
+        long read = 0;
+        try (
+            FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+            FileChannel dst = FileChannel.open(
+                out,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            )
+        ) {
+            probe = probe(Base65536Metrics.Mode.FILE, src.size());
+            ByteBuffer chunk = ByteBuffer.allocate(MappedFileSupport.CHUNK_SIZE);
+            ByteBuffer decoded = ByteBuffer.allocate(MappedFileSupport.CHUNK_SIZE);
+            byte[] chunkArray = chunk.array();
+            int n;
+
+            long codePointCount = 0;
+            MappedFileSupport.Reader reader = new MappedFileSupport.Reader(src);
+            while ((n = reader.read(chunkArray, 0, chunkArray.length)) != -1) {
+                codePointCount += countUtf8CodePoints(chunkArray, 0, n, lenient);
+            }
+
+            long size = lenient ? trimTrailing(src) : src.size();
+            long length = decodedLength(src, size, codePointCount);
+
+            reader = new MappedFileSupport.Reader(src);
+            MappedFileSupport.Writer writer = new MappedFileSupport.Writer(dst, length);
+            long consumed = 0;
+            long written = 0;
+
+            while (true) {
+                int want = (int) Math.min(chunk.remaining(), size - read);
+                n = want > 0 ? reader.read(chunkArray, chunk.position(), want) : 0;
+                if (n > 0) {
+                    chunk.position(chunk.position() + n);
+                    read += n;
+                }
+                boolean endOfInput = read == size;
+
+                chunk.flip();
+                CoderResult result = decode(chunk, decoded, endOfInput);
+                if (result.isError()) {
+                    int at = chunk.position();
+                    IllegalBase65536TextException e =
+                        toException(result, chunkArray, at, chunk.limit(), consumed + at, written + decoded.position());
+                    writer.write(decoded.array(), 0, decoded.position());
+                    truncate(dst, written + decoded.position(), e);
+                    throw e;
+                }
+                consumed += chunk.position();
+                chunk.compact();
+
+                writer.write(decoded.array(), 0, decoded.position());
+                written += decoded.position();
+                decoded.clear();
+
+                if (result.isUnderflow() && endOfInput && chunk.position() == 0) {
+                    if (probe != null) probe.end(read, written);
+                    return written;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (probe != null) probe.fail(read, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Cuts the output file of a failed decoding down to the given size, because the mapped windows have grown it to
+     * the size calculated for the whole input. A failure to do so is added to the given decoding error.
+     */
+    private static void truncate(FileChannel dst, long size, RuntimeException error) {
+        try {
+            dst.truncate(size);
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Starts measuring a one-shot decoding for {@link Base65536Metrics}.
+     */
+    private static Base65536Metrics.Probe probe(Base65536Metrics.Mode mode, long inputLength) {
+        return Base65536Metrics.start(Base65536Metrics.Operation.DECODE, mode, inputLength);
+    }
+
+    /**
+     * Returns the number of bytes the first size bytes of the given file decode into, which hold the given number of
+     * code points, validating the last code point.
+     */
+    private static long decodedLength(FileChannel src, long size, long codePointCount) throws IOException {
+        if (codePointCount == 0) return 0;
+
+        ByteBuffer tail = ByteBuffer.allocate((int) Math.min(4, size));
+        while (tail.hasRemaining()) {
+            if (src.read(tail, size - tail.remaining()) < 0) throw new EOFException();
+        }
+
+        int count = (int) Math.min(codePointCount, Integer.MAX_VALUE);
+        boolean padded = endsWithPadding(tail.array(), 0, tail.capacity(), count);
+        return padded ? codePointCount * 2 - 1 : codePointCount * 2;
+    }
+
+    /**
+     * Returns the size of the given file without the trailing bytes a lenient decoder skips, reading it backwards in
+     * small blocks.
+     */
+    private static long trimTrailing(FileChannel src) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(64);
+        long end = src.size();
+
+        while (end > 0) {
+            block.clear().limit((int) Math.min(block.capacity(), end));
+            long blockStart = end - block.limit();
+            while (block.hasRemaining()) {
+                if (src.read(block, blockStart + block.position()) < 0) throw new EOFException();
+            }
+
+            int trimmed = trimTrailing(block.array(), 0, block.limit());
+            if (trimmed > 0) return blockStart + trimmed;
+            end = blockStart;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Builds a seek index of the specified CharSequence with a checkpoint every
+     * {@value Base65536SeekIndex#DEFAULT_INTERVAL} code points.
+     * @param src the CharSequence to index
+     * @return The seek index of src.
+     * @throws IllegalBase65536TextException if the last code point of src is not in the Base65536 code blocks.
+     * @see #index(CharSequence, int)
+     */
+    public Base65536SeekIndex index(CharSequence src) {
+        return index(src, Base65536SeekIndex.DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Builds a seek index of the specified CharSequence with a checkpoint every interval code points, for decoding
+     * ranges of it with {@link #decodeRange(CharSequence, Base65536SeekIndex, long, long)}.<br>
+     * The text is read once. Only its last code point is validated, in the same way as by
+     * {@link #decodedLength(CharSequence)}; the rest is validated as ranges of it are decoded.
+     * @param src the CharSequence to index
+     * @param interval the number of code points between checkpoints
+     * @return The seek index of src.
+     * @throws IllegalArgumentException if interval is not positive.
+     * @throws IllegalBase65536TextException if the last code point of src is not in the Base65536 code blocks.
+     */
+    public Base65536SeekIndex index(CharSequence src, int interval) {
+        if (interval <= 0) throw new IllegalArgumentException("Non-positive interval: " + interval);
+
+        int end = lenient ? trimTrailing(src, 0, src.length()) : src.length();
+        long[] checkpoints = new long[Base65536SeekIndex.checkpointCount(end, interval)];
+        int codePointCount = 0;
+        int untilCheckpoint = 0;
+
+        for (int i = 0; i < end; ) {
+            char c = src.charAt(i);
+            if (lenient && isIgnorable(c)) {
+                i++;
+                continue;
+            }
+
+            if (untilCheckpoint-- == 0) {
+                checkpoints[codePointCount / interval] = i;
+                untilCheckpoint = interval - 1;
+            }
+            codePointCount++;
+            i += Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(src.charAt(i + 1)) ? 2 : 1;
+        }
+
+        long decodedLength = 0;
+        if (codePointCount > 0) {
+            boolean padded = endsWithPadding(src, 0, end, codePointCount);
+            decodedLength = padded ? codePointCount * 2L - 1 : codePointCount * 2L;
+        }
+
+        return new Base65536SeekIndex(
+            interval,
+            Arrays.copyOf(checkpoints, Base65536SeekIndex.checkpointCount(codePointCount, interval)),
+            codePointCount,
+            decodedLength,
+            src.length(),
+            false,
+            lenient
+        );
+    }
+
+    /**
+     * Builds a seek index of the specified UTF-8 file with a checkpoint every
+     * {@value Base65536SeekIndex#DEFAULT_INTERVAL} code points.
+     * @param file the path of the file to index
+     * @return The seek index of the file.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalBase65536TextException if the last code point of the file is not in valid Base65536 scheme.
+     * @see #index(Path, int)
+     */
+    public Base65536SeekIndex index(Path file) throws IOException {
+        return index(file, Base65536SeekIndex.DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Builds a seek index of the specified UTF-8 file with a checkpoint every interval code points, for decoding
+     * ranges of it with {@link #decodeRange(Path, Base65536SeekIndex, long, long)}.<br>
+     * The file is read once through memory-mapped windows, counting the UTF-8 lead bytes. Only its last code point is
+     * validated; the rest is validated as ranges of it are decoded.
+     * @param file the path of the file to index
+     * @param interval the number of code points between checkpoints
+     * @return The seek index of the file.
+     * @throws IllegalArgumentException if interval is not positive.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalBase65536TextException if the last code point of the file is not in valid Base65536 scheme.
+     */
+    public Base65536SeekIndex index(Path file, int interval) throws IOException {
+        if (interval <= 0) throw new IllegalArgumentException("Non-positive interval: " + interval);
+
+        try (FileChannel src = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = lenient ? trimTrailing(src) : src.size();
+            long[] checkpoints = new long[Base65536SeekIndex.checkpointCount(size / 3 + 1, interval)];
+            long codePointCount = 0;
+            int untilCheckpoint = 0;
+
+            byte[] chunk = new byte[MappedFileSupport.CHUNK_SIZE];
+            MappedFileSupport.Reader reader = new MappedFileSupport.Reader(src);
+            long position = 0;
+            while (position < size) {
+                int n = reader.read(chunk, 0, (int) Math.min(chunk.length, size - position));
+                if (n < 0) throw new EOFException();
+
+                for (int i = 0; i < n; i++) {
+                    byte b = chunk[i];
+                    if ((b & 0xC0) == 0x80 || lenient && isIgnorable(b)) continue;
+
+                    if (untilCheckpoint-- == 0) {
+                        int checkpoint = (int) (codePointCount / interval);
+                        if (checkpoint == checkpoints.length) {
+                            checkpoints = Arrays.copyOf(checkpoints, Base65536Encoder.toArrayLength(checkpoint * 2L));
+                        }
+                        checkpoints[checkpoint] = position + i;
+                        untilCheckpoint = interval - 1;
+                    }
+                    codePointCount++;
+                }
+                position += n;
+            }
+
+            return new Base65536SeekIndex(
+                interval,
+                Arrays.copyOf(checkpoints, Base65536SeekIndex.checkpointCount(codePointCount, interval)),
+                codePointCount,
+                decodedLength(src, size, codePointCount),
+                src.size(),
+                true,
+                lenient
+            );
+        }
+    }
+
+    /**
+     * Decodes the bytes from index from to index to of the decoded data of the specified CharSequence, seeking to
+     * them with its seek index. Only the code points holding the range, and fewer than
+     * {@link Base65536SeekIndex#getInterval() the interval} code points before them, are read.
+     * @param src the CharSequence the index was built from
+     * @param index the seek index of src
+     * @param from the index of the first decoded byte to return
+     * @param to the index after the last decoded byte to return
+     * @return A newly-allocated byte array containing the decoded bytes of the range.
+     * @throws IllegalArgumentException if the index was not built from a CharSequence of the length of src by a
+     *                                  decoder of the same leniency.
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of the decoded data.
+     * @throws IllegalBase65536TextException if the code points of the range are not in valid Base65536 scheme.
+     */
+    public byte[] decodeRange(CharSequence src, Base65536SeekIndex index, long from, long to) {
+        checkSeekIndex(index, false, src.length());
+        Objects.checkFromToIndex(from, to, index.getDecodedLength());
+        if (from == to) return new byte[0];
+
+        long first = from / 2;
+        long last = (to + 1) / 2;
+        int checkpoint = (int) (first / index.getInterval());
+
+        long skipped = first - (long) checkpoint * index.getInterval();
+        int start = skipCodePoints(src, (int) index.checkpoint(checkpoint), src.length(), skipped);
+        int end = skipCodePoints(src, start, src.length(), last - first);
+
+        byte[] decoded = new byte[Base65536Encoder.toArrayLength((last - first) * 2)];
+        checkRangeLength(index, first, last, decodeChars(src, start, end, decoded, 0, lenient));
+        return slice(decoded, (int) (from - first * 2), (int) (to - from));
+    }
+
+    /**
+     * Decodes the bytes from index from to index to of the decoded data of the specified UTF-8 file, seeking to them
+     * with its seek index. Only the bytes of the code points holding the range, and of fewer than
+     * {@link Base65536SeekIndex#getInterval() the interval} code points before them, are read.
+     * @param file the path of the file the index was built from
+     * @param index the seek index of the file
+     * @param from the index of the first decoded byte to return
+     * @param to the index after the last decoded byte to return
+     * @return A newly-allocated byte array containing the decoded bytes of the range.
+     * @throws IllegalArgumentException if the index was not built from a file of the size of this one by a decoder of
+     *                                  the same leniency.
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of the decoded data.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalBase65536TextException if the code points of the range are not in valid Base65536 scheme.
+     */
+    public byte[] decodeRange(Path file, Base65536SeekIndex index, long from, long to) throws IOException {
+        try (FileChannel src = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = src.size();
+            checkSeekIndex(index, true, size);
+            Objects.checkFromToIndex(from, to, index.getDecodedLength());
+            if (from == to) return new byte[0];
+
+            long first = from / 2;
+            long last = (to + 1) / 2;
+            int checkpoint = (int) (first / index.getInterval());
+            long position = index.checkpoint(checkpoint);
+            long skipped = first - (long) checkpoint * index.getInterval();
+
+            // Strict text takes at most four bytes per code point. Lenient text may hold any amount of whitespace, so
+            // the window is doubled until it holds the whole range.
+            long windowSize = Math.min(size - position, (skipped + last - first) * 4);
+            while (true) {
+                byte[] window = new byte[Base65536Encoder.toArrayLength(windowSize)];
+                ByteBuffer buffer = ByteBuffer.wrap(window);
+                while (buffer.hasRemaining()) {
+                    if (src.read(buffer, position + buffer.position()) < 0) throw new EOFException();
+                }
+
+                int start = skipUtf8CodePoints(window, 0, window.length, skipped, position);
+                int end = start < 0 ? -1 : skipUtf8CodePoints(window, start, window.length, last - first, position);
+                if (end >= 0) {
+                    byte[] decoded = new byte[Base65536Encoder.toArrayLength((last - first) * 2)];
+                    checkRangeLength(index, first, last, decodeUtf8(window, start, end - start, decoded, 0, lenient));
+                    return slice(decoded, (int) (from - first * 2), (int) (to - from));
+                }
+
+                if (windowSize == size - position) throw new EOFException();
+                windowSize = Math.min(size - position, windowSize * 2);
+            }
+        }
+    }
+
+    private void checkSeekIndex(Base65536SeekIndex index, boolean utf8, long sourceLength) {
+        if (index.isUtf8() != utf8) {
+            throw new IllegalArgumentException("The seek index was built from " + (utf8 ? "a CharSequence" : "a file"));
+        }
+        if (index.isLenient() != lenient) {
+            throw new IllegalArgumentException("The seek index was built by a decoder of a different leniency");
+        }
+        if (index.getSourceLength() != sourceLength) {
+            throw new IllegalArgumentException(
+                "The seek index was built from a text of length " + index.getSourceLength() + ", not " + sourceLength
+            );
+        }
+    }
+
+    /**
+     * Checks the number of bytes decoded from code points first to last of the text against the index. Only the last
+     * code point of the whole text may be the padding code point, which decodes into one byte instead of two.
+     */
+    private static void checkRangeLength(Base65536SeekIndex index, long first, long last, int written) {
+        long codePointCount = index.getCodePointCount();
+        long expected = last == codePointCount ? index.getDecodedLength() - first * 2 : (last - first) * 2;
+        if (written == expected) return;
+        if (last < codePointCount) throw afterPadding();
+        throw new IllegalArgumentException("The seek index doesn't match the text");
+    }
+
+    /**
+     * Returns the index after the given number of code points from start, not counting the chars a lenient decoder
+     * skips.
+     */
+    private int skipCodePoints(CharSequence src, int start, int end, long count) {
+        int i = start;
+        for (long k = 0; k < count; ) {
+            if (i >= end) throw new IndexOutOfBoundsException("The text is shorter than its seek index");
+            char c = src.charAt(i);
+            if (lenient && isIgnorable(c)) {
+                i++;
+                continue;
+            }
+
+            i += Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(src.charAt(i + 1)) ? 2 : 1;
+            k++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the offset after the given number of UTF-8 sequences from off, not counting the bytes a lenient decoder
+     * skips, or -1 if the range ends before them.
+     * @param base the offset of the range in the whole input, for error messages
+     */
+    private int skipUtf8CodePoints(byte[] src, int off, int end, long count, long base) {
+        int i = off;
+        for (long k = 0; k < count; ) {
+            if (i >= end) return -1;
+            if (lenient && isIgnorable(src[i])) {
+                i++;
+                continue;
+            }
+
+            int sequenceLength = utf8SequenceLength(Byte.toUnsignedInt(src[i]));
+            if (sequenceLength == 0) throw malformedUtf8(base + i);
+            if (end - i < sequenceLength) return -1;
+            i += sequenceLength;
+            k++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns len bytes of the given array starting at off, which is the array itself if it is exactly that.
+     */
+    private static byte[] slice(byte[] src, int off, int len) {
+        return off == 0 && len == src.length ? src : Arrays.copyOfRange(src, off, off + len);
+    }
+
+    /**
+     * Returns an input stream for decoding {@link Base65536} encoded byte stream.<br>
+     * The underlying input stream is read in UTF-8 through a fixed-size buffer which is reused for the life of the
+     * returned stream, so memory use doesn't depend on the amount of data. UTF-8 sequences split across reads of the
+     * underlying stream are carried over to the next read.<br>
+     * The {@code read} methods of the returned InputStream will throw {@link IllegalBase65536TextException} when
+     * reading bytes that cannot be decoded, including any data following the padding code point and a UTF-8 sequence
+     * cut off by the end of the underlying stream.<br>
+     * Closing the returned input stream will close the underlying input stream.
+     * @param is the input stream
+     * @return the input stream for decoding the specified Base65536 encoded byte stream
+     */
     public InputStream wrap(InputStream is) {
-        throw new UnsupportedOperationException("Not yet implemented");
+        Objects.requireNonNull(is);
+        return new DecInputStream(is, lenient);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which decodes a stream of UTF-8 byte buffers, passing copies of output
+     * buffers of the default size. The stage skips whitespace and line breaks if this decoder is {@link #lenient()
+     * lenient}.
+     * @return A new decoding stage.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, ByteBuffer> newProcessor() {
+        return newProcessor(Base65536Processor.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which decodes a stream of UTF-8 byte buffers, passing copies of output
+     * buffers of the given size. The stage skips whitespace and line breaks if this decoder is {@link #lenient()
+     * lenient}.
+     * @param bufferSize the capacity of the output buffers in bytes, at least 4
+     * @return A new decoding stage.
+     * @throws IllegalArgumentException if bufferSize is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, ByteBuffer> newProcessor(int bufferSize) {
+        return Base65536Processor.decoding(this, bufferSize, 0, false);
+    }
+
+    /**
+     * Returns a new pooled {@link Flow.Processor} stage which decodes a stream of UTF-8 byte buffers, passing the
+     * output buffers of its pool, which the subscriber has to hand back with {@link Base65536Processor#release}. The
+     * stage skips whitespace and line breaks if this decoder is {@link #lenient() lenient}.
+     * @param bufferSize the capacity of the output buffers in bytes, at least 4
+     * @param maxBuffers the maximum number of output buffers in flight, at least 1
+     * @return A new pooled decoding stage.
+     * @throws IllegalArgumentException if bufferSize or maxBuffers is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, ByteBuffer> newPooledProcessor(int bufferSize, int maxBuffers) {
+        return Base65536Processor.decoding(this, bufferSize, maxBuffers, true);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which decodes a stream of char buffers, passing copies of output
+     * buffers of the default size. The stage skips whitespace and line breaks if this decoder is {@link #lenient()
+     * lenient}.
+     * @return A new decoding stage.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<CharBuffer, ByteBuffer> newCharProcessor() {
+        return newCharProcessor(Base65536Processor.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which decodes a stream of char buffers, passing copies of output
+     * buffers of the given size. The stage skips whitespace and line breaks if this decoder is {@link #lenient()
+     * lenient}.
+     * @param bufferSize the capacity of the output buffers in bytes, at least 4
+     * @return A new decoding stage.
+     * @throws IllegalArgumentException if bufferSize is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<CharBuffer, ByteBuffer> newCharProcessor(int bufferSize) {
+        return Base65536Processor.decodingChars(this, bufferSize, 0, false);
+    }
+
+    /**
+     * Returns a new pooled {@link Flow.Processor} stage which decodes a stream of char buffers, passing the output
+     * buffers of its pool, which the subscriber has to hand back with {@link Base65536Processor#release}. The stage
+     * skips whitespace and line breaks if this decoder is {@link #lenient() lenient}.
+     * @param bufferSize the capacity of the output buffers in bytes, at least 4
+     * @param maxBuffers the maximum number of output buffers in flight, at least 1
+     * @return A new pooled decoding stage.
+     * @throws IllegalArgumentException if bufferSize or maxBuffers is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<CharBuffer, ByteBuffer> newPooledCharProcessor(int bufferSize, int maxBuffers) {
+        return Base65536Processor.decodingChars(this, bufferSize, maxBuffers, true);
+    }
+
+    /**
+     * Returns a new context for decoding many payloads on one thread without allocation, which skips whitespace and
+     * line breaks if this decoder is {@link #lenient() lenient}.
+     * @return A new context with an empty scratch buffer.
+     */
+    public Context newContext() {
+        return new Context(lenient);
+    }
+
+    /**
+     * A reusable holder of a scratch buffer for decoding many small payloads, for example messages on a hot path,
+     * without allocating anything in the steady state.<br>
+     * Every method decodes in a single pass into a scratch array owned by the context, which is sized for the largest
+     * possible result and grows with the largest payload seen, and returns a view of the result in it. The same view
+     * instance is returned by every call, so a result is only valid until the next call on the same context. If the
+     * input is not in valid Base65536 scheme, the content of the scratch array is undefined.<br>
+     * Instances of this class are not safe for use by multiple concurrent threads. Keep one per thread, for example in
+     * a {@link ThreadLocal}.
+     */
+    public static final class Context {
+        private final boolean lenient;
+        private byte[] bytes = new byte[0];
+        private ByteBuffer view = ByteBuffer.wrap(bytes);
+
+        private Context(boolean lenient) {
+            this.lenient = lenient;
+        }
+
+        /**
+         * Decodes all bytes from the input UTF-8 byte array using the {@link Base65536} encoding scheme.
+         * @param src the byte array to decode
+         * @return A view of the decoded bytes, whose position is zero and whose limit is their length.
+         * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+         */
+        public ByteBuffer decode(byte[] src) {
+            return decode(src, 0, src.length);
+        }
+
+        /**
+         * Decodes len bytes from the input UTF-8 byte array starting at off using the {@link Base65536} encoding
+         * scheme.
+         * @param src the byte array to decode
+         * @param off the start offset in src
+         * @param len the number of bytes to decode
+         * @return A view of the decoded bytes, whose position is zero and whose limit is their length.
+         * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+         * @throws IllegalBase65536TextException if the range of src is not in valid Base65536 scheme.
+         */
+        public ByteBuffer decode(byte[] src, int off, int len) {
+            Objects.checkFromIndexSize(off, len, src.length);
+
+            Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.ARRAY, len);
+            try {
+                ensureCapacity(len / 3 * 2);
+                int written = decodeUtf8(src, off, len, bytes, 0, lenient);
+                if (probe != null) probe.end(len, written);
+                return view.clear().limit(written);
+            } catch (RuntimeException e) {
+                if (probe != null) probe.fail(len, e);
+                throw e;
+            }
+        }
+
+        /**
+         * Decodes the chars from start to end of the input CharSequence using the {@link Base65536} encoding scheme.
+         * @param src the CharSequence to decode
+         * @param start the index of the first char to decode
+         * @param end the index after the last char to decode
+         * @return A view of the decoded bytes, whose position is zero and whose limit is their length.
+         * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+         * @throws IllegalBase65536TextException if the range of src is not in valid Base65536 scheme.
+         */
+        public ByteBuffer decode(CharSequence src, int start, int end) {
+            Objects.checkFromToIndex(start, end, src.length());
+
+            Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, end - start);
+            try {
+                int length = end - start;
+                ensureCapacity(fitsOptimisticBuffer(length) ? length * 2 : calcBufferLength(src, start, end, lenient));
+                int written = decodeChars(src, start, end, bytes, 0, lenient);
+                if (probe != null) probe.end(end - start, written);
+                return view.clear().limit(written);
+            } catch (RuntimeException e) {
+                if (probe != null) probe.fail(end - start, e);
+                throw e;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (bytes.length < capacity) {
+                bytes = new byte[capacity];
+                view = ByteBuffer.wrap(bytes);
+            }
+        }
+    }
+
+    private static class DecInputStream extends FilterInputStream {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final boolean lenient;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] single = new byte[1];
+        private int position = 0;
+        private int limit = 0;
+        private long consumed = 0;
+        private long codePointCount = 0;
+        private int pending = -1;
+        private boolean padded = false;
+        private boolean closed = false;
+        private final Base65536Metrics.Probe probe =
+            Base65536Metrics.startStream(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.STREAM);
+        private long produced = 0;
+
+        DecInputStream(InputStream is, boolean lenient) {
+            super(is);
+            this.lenient = lenient;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) return 0;
+
+            try {
+                int n = decodeInto(b, off, len);
+                if (n > 0) produced += n;
+                return n;
+            } catch (IOException | RuntimeException e) {
+                if (probe != null) probe.fail(consumed + position, e);
+                throw e;
+            }
+        }
+
+        /**
+         * Decodes into the given range, reading the underlying stream as needed.
+         * @return The number of bytes decoded, or -1 at the end of the stream.
+         */
+        private int decodeInto(byte[] b, int off, int len) throws IOException {
+            int o = off;
+            int end = off + len;
+
+            if (pending >= 0) {
+                b[o++] = (byte) pending;
+                pending = -1;
+            }
+
+            while (o < end) {
+                if (position == limit) {
+                    if (o > off || !fill()) break;
+                    continue;
+                }
+                if (lenient && isIgnorable(buffer[position])) {
+                    position++;
+                    continue;
+                }
+                if (padded) throw afterPadding();
+
+                int sequenceLength = utf8SequenceLength(Byte.toUnsignedInt(buffer[position]));
+                if (sequenceLength == 0) throw malformedUtf8(consumed + position);
+                if (limit - position < sequenceLength) {
+                    if (o > off) break;
+                    if (!fill()) throw malformedUtf8(consumed + position);
+                    continue;
+                }
+
+                int codePoint = utf8CodePointAt(buffer, position, limit);
+                if (codePoint < 0) throw malformedUtf8(consumed + position);
+                position += sequenceLength;
+                codePointCount++;
+
+                int leastByte = leastByteOf(codePoint);
+                if (leastByte == INVALID) throw unknownCodePoint(codePointCount, codePoint);
+
+                b[o++] = (byte) codePoint;
+                if (leastByte == PADDING) {
+                    padded = true;
+                } else if (o < end) {
+                    b[o++] = (byte) leastByte;
+                } else {
+                    pending = leastByte;
+                }
+            }
+
+            return o == off ? -1 : o - off;
+        }
+
+        /**
+         * Moves the unread bytes to the head of the buffer and reads the underlying stream into the rest.
+         * @return false if the underlying stream has reached the end.
+         */
+        private boolean fill() throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                consumed += position;
+                limit -= position;
+                position = 0;
+            }
+
+            int n = in.read(buffer, limit, BUFFER_SIZE - limit);
+            if (n <= 0) return false;
+            limit += n;
+            return true;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+
+            long remaining = n;
+            byte[] scratch = new byte[(int) Math.min(BUFFER_SIZE, Math.max(remaining, 0))];
+            while (remaining > 0) {
+                int read = read(scratch, 0, (int) Math.min(scratch.length, remaining));
+                if (read < 0) break;
+                remaining -= read;
+            }
+            return n - remaining;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+            return pending >= 0 ? 1 : 0;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {}
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            in.close();
+            if (probe != null) probe.end(consumed + position, produced);
+        }
     }
 }
@@ -0,0 +1,483 @@
+package net.eewbot.base65536j;
+
+import net.eewbot.base65536j.exception.IllegalBase65536TextException;
+import net.eewbot.base65536j.exception.IllegalCompressedDataException;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * This class implements a codec which compresses bytes with Deflate before encoding them using the {@link Base65536}
+ * encoding scheme, and inflates them after decoding. Compressible data such as JSON is encoded into much fewer code
+ * points than by {@link Base65536Encoder}.<br>
+ * The encoded bytes start with a one byte header telling how the rest of them is stored: {@code 0} for the data as it
+ * is, and {@code 1} for raw Deflate data without the zlib header and checksum, which would cost code points for
+ * nothing. Data which doesn't shrink is stored as it is by the array methods, so the text is at most one code point
+ * longer than the one plain encoding results in.<br>
+ * Deflaters and inflaters are reused from bounded pools instead of being created for every call or stream.<br>
+ * A few kilobytes of deflated data can inflate into gigabytes, so decoding stops with an
+ * {@link IllegalCompressedDataException} once the decompressed bytes exceed a maximum length, which is
+ * {@link #DEFAULT_MAX_DECODED_LENGTH} unless given. Like the exceptions for invalid text, these are thrown without
+ * capturing a stack trace when the {@code net.eewbot.base65536j.stackTrace} system property is set to
+ * {@code false}.<br>
+ * Instances of {@link Base65536DeflateCodec} class are safe for use by multiple concurrent threads.<br>
+ * Unless otherwise noted, passing a null argument to a method of this class will cause a {@link NullPointerException}
+ * to be thrown.
+ */
+public final class Base65536DeflateCodec {
+    /**
+     * The maximum number of decompressed bytes used by the methods which don't take one.
+     */
+    public static final int DEFAULT_MAX_DECODED_LENGTH = 64 * 1024 * 1024;
+
+    static final int STORED = 0;
+    static final int DEFLATED = 1;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int POOL_CAPACITY = Runtime.getRuntime().availableProcessors();
+
+    private static final CoderPool<Inflater> INFLATERS =
+        new CoderPool<>(POOL_CAPACITY, () -> new Inflater(true), Inflater::reset, Inflater::end);
+
+    private final int level;
+    private final Base65536Decoder decoder;
+    private final CoderPool<Deflater> deflaters;
+
+    Base65536DeflateCodec(int level, Base65536Decoder decoder) {
+        this.level = level;
+        this.decoder = decoder;
+        this.deflaters = new CoderPool<>(POOL_CAPACITY, () -> new Deflater(level, true), Deflater::reset, Deflater::end);
+    }
+
+    /**
+     * Returns a codec which compresses at the given level.
+     * @param level the compression level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return A codec compressing at the given level.
+     * @throws IllegalArgumentException if the level is out of range.
+     */
+    public Base65536DeflateCodec withLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        return level == this.level ? this : new Base65536DeflateCodec(level, decoder);
+    }
+
+    /**
+     * Returns a codec which decodes text with a {@link Base65536Decoder#lenient() lenient} decoder.
+     * @return A codec skipping whitespace and line breaks in the text it decodes.
+     */
+    public Base65536DeflateCodec lenient() {
+        return decoder.isLenient() ? this : new Base65536DeflateCodec(level, decoder.lenient());
+    }
+
+    /**
+     * Compresses all bytes of the input byte array and encodes them into UTF-8.
+     * @param src the byte array to encode
+     * @return A newly-allocated byte array containing the UTF-8 encoded text.
+     */
+    public byte[] encode(byte[] src) {
+        byte[] framed = new byte[src.length + 1];
+        int length = frame(src, framed);
+
+        Base65536Encoder encoder = Base65536.getEncoder();
+        byte[] dst = new byte[encoder.encodedUtf8Length(framed, 0, length)];
+        encoder.encode(framed, 0, length, dst, 0);
+        return dst;
+    }
+
+    /**
+     * Compresses all bytes of the input byte array and encodes them into a String.
+     * @param src the byte array to encode
+     * @return A String containing the encoded text.
+     */
+    public String encodeToString(byte[] src) {
+        byte[] framed = new byte[src.length + 1];
+        int length = frame(src, framed);
+
+        Base65536Encoder encoder = Base65536.getEncoder();
+        StringBuilder dst = new StringBuilder(encoder.encodedCharLength(framed, 0, length));
+        encoder.encode(framed, 0, length, dst);
+        return dst.toString();
+    }
+
+    /**
+     * Writes the header and the deflated data into framed, which has one byte more than src, or the header and src as
+     * it is if deflating doesn't make it shorter.
+     * @return The number of bytes written to framed.
+     */
+    private int frame(byte[] src, byte[] framed) {
+        Deflater deflater = deflaters.borrow();
+        try {
+            deflater.setInput(src);
+            deflater.finish();
+
+            int length = 1;
+            while (!deflater.finished() && length < framed.length) {
+                length += deflater.deflate(framed, length, framed.length - length);
+            }
+
+            if (deflater.finished()) {
+                framed[0] = DEFLATED;
+                return length;
+            }
+        } finally {
+            deflaters.release(deflater);
+        }
+
+        framed[0] = STORED;
+        System.arraycopy(src, 0, framed, 1, src.length);
+        return framed.length;
+    }
+
+    /**
+     * Decodes the UTF-8 encoded text and decompresses the result into at most
+     * {@link #DEFAULT_MAX_DECODED_LENGTH} bytes.
+     * @param src the byte array to decode
+     * @return A newly-allocated byte array containing the decompressed bytes.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     * @throws IllegalCompressedDataException if the decoded bytes have an unknown header or corrupted data, or
+     * decompress into more than {@link #DEFAULT_MAX_DECODED_LENGTH} bytes.
+     */
+    public byte[] decode(byte[] src) {
+        return decode(src, DEFAULT_MAX_DECODED_LENGTH);
+    }
+
+    /**
+     * Decodes the UTF-8 encoded text and decompresses the result into at most maxLength bytes.
+     * @param src the byte array to decode
+     * @param maxLength the maximum number of decompressed bytes
+     * @return A newly-allocated byte array containing the decompressed bytes.
+     * @throws IllegalArgumentException if maxLength is negative.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     * @throws IllegalCompressedDataException if the decoded bytes have an unknown header or corrupted data, or
+     * decompress into more than maxLength bytes.
+     */
+    public byte[] decode(byte[] src, int maxLength) {
+        checkMaxLength(maxLength);
+        return unframe(decoder.decode(src), maxLength);
+    }
+
+    /**
+     * Decodes the String and decompresses the result into at most {@link #DEFAULT_MAX_DECODED_LENGTH} bytes.
+     * @param src the String to decode
+     * @return A newly-allocated byte array containing the decompressed bytes.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     * @throws IllegalCompressedDataException if the decoded bytes have an unknown header or corrupted data, or
+     * decompress into more than {@link #DEFAULT_MAX_DECODED_LENGTH} bytes.
+     */
+    public byte[] decode(String src) {
+        return decode(src, DEFAULT_MAX_DECODED_LENGTH);
+    }
+
+    /**
+     * Decodes the String and decompresses the result into at most maxLength bytes.
+     * @param src the String to decode
+     * @param maxLength the maximum number of decompressed bytes
+     * @return A newly-allocated byte array containing the decompressed bytes.
+     * @throws IllegalArgumentException if maxLength is negative.
+     * @throws IllegalBase65536TextException if src is not in valid Base65536 scheme.
+     * @throws IllegalCompressedDataException if the decoded bytes have an unknown header or corrupted data, or
+     * decompress into more than maxLength bytes.
+     */
+    public byte[] decode(String src, int maxLength) {
+        checkMaxLength(maxLength);
+        return unframe(decoder.decode(src), maxLength);
+    }
+
+    private static void checkMaxLength(long maxLength) {
+        if (maxLength < 0) throw new IllegalArgumentException("Invalid maximum length: " + maxLength);
+    }
+
+    private static byte[] unframe(byte[] framed, int maxLength) {
+        if (framed.length == 0) throw missingHeader();
+
+        switch (framed[0]) {
+            case STORED:
+                if (framed.length - 1 > maxLength) throw tooLarge(maxLength);
+                return Arrays.copyOfRange(framed, 1, framed.length);
+            case DEFLATED:
+                return inflate(framed, maxLength);
+            default:
+                throw unknownHeader(framed[0]);
+        }
+    }
+
+    private static byte[] inflate(byte[] framed, int maxLength) {
+        Inflater inflater = INFLATERS.borrow();
+        try {
+            inflater.setInput(framed, 1, framed.length - 1);
+
+            // One byte more than maxLength is enough to tell that the data is too large.
+            int limit = (int) Math.min(maxLength + 1L, Integer.MAX_VALUE - 8);
+            byte[] dst = new byte[(int) Math.min(Math.max(BUFFER_SIZE, (framed.length - 1) * 4L), limit)];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == dst.length) {
+                    if (length > maxLength) throw tooLarge(maxLength);
+                    dst = Arrays.copyOf(dst, grow(dst.length, limit));
+                }
+
+                int n = inflater.inflate(dst, length, dst.length - length);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw truncated();
+                length += n;
+            }
+
+            if (length > maxLength) throw tooLarge(maxLength);
+            if (inflater.getRemaining() > 0) throw afterCompressedData();
+            return length == dst.length ? dst : Arrays.copyOf(dst, length);
+        } catch (DataFormatException e) {
+            throw corrupted(e);
+        } finally {
+            INFLATERS.release(inflater);
+        }
+    }
+
+    private static int grow(int length, int limit) {
+        if (length >= limit) throw new OutOfMemoryError("Inflated size is too large.");
+        return (int) Math.min((long) length * 2, limit);
+    }
+
+    private static IllegalCompressedDataException missingHeader() {
+        return invalid("Missing header.", null);
+    }
+
+    private static IllegalCompressedDataException tooLarge(long maxLength) {
+        return invalid("Decompressed data is longer than " + maxLength + " bytes.", null);
+    }
+
+    private static IllegalCompressedDataException unknownHeader(int header) {
+        return invalid("Unknown header: " + header, null);
+    }
+
+    private static IllegalCompressedDataException truncated() {
+        return invalid("Compressed data is truncated.", null);
+    }
+
+    private static IllegalCompressedDataException afterCompressedData() {
+        return invalid("Data exists after the end of compressed data.", null);
+    }
+
+    private static IllegalCompressedDataException corrupted(Exception cause) {
+        return invalid("Compressed data is corrupted.", cause);
+    }
+
+    /**
+     * Creates the exception for invalid compressed data, which captures a stack trace only if the exceptions of
+     * {@link Base65536Decoder} do.
+     */
+    private static IllegalCompressedDataException invalid(String message, Throwable cause) {
+        return new IllegalCompressedDataException(message, cause, Base65536Decoder.STACK_TRACES);
+    }
+
+    /**
+     * Returns an output stream which compresses the bytes written to it and encodes them into UTF-8, writing the
+     * results to the given output stream.<br>
+     * The data is always deflated, since it isn't known in advance whether it shrinks. It is deflated and encoded
+     * through fixed-size buffers, and the deflater is returned to the pool when the returned stream is closed.<br>
+     * Closing the returned output stream will finish the compressed data, write the padding code point if needed and
+     * close the underlying output stream.
+     * @param os the output stream
+     * @return the output stream for compressing and encoding data into the specified output stream
+     */
+    public OutputStream wrap(OutputStream os) {
+        Objects.requireNonNull(os);
+        return new DeflateOutputStream(Base65536.getEncoder().wrap(os), deflaters);
+    }
+
+    /**
+     * Returns an input stream which decodes the UTF-8 encoded text read from the given input stream and decompresses
+     * the results into at most {@link #DEFAULT_MAX_DECODED_LENGTH} bytes.<br>
+     * See {@link #wrap(InputStream, long)} for the details.
+     * @param is the input stream
+     * @return the input stream for decoding and decompressing the specified input stream
+     */
+    public InputStream wrap(InputStream is) {
+        return wrap(is, DEFAULT_MAX_DECODED_LENGTH);
+    }
+
+    /**
+     * Returns an input stream which decodes the UTF-8 encoded text read from the given input stream and decompresses
+     * the results into at most maxLength bytes.<br>
+     * The text is decoded and inflated through fixed-size buffers, and the inflater is returned to the pool when the
+     * returned stream is closed.<br>
+     * The {@code read} methods of the returned InputStream will throw {@link IllegalBase65536TextException} for text
+     * which cannot be decoded and {@link IllegalCompressedDataException} for decoded bytes which cannot be
+     * decompressed or decompress into more than maxLength bytes.<br>
+     * Closing the returned input stream will close the underlying input stream.
+     * @param is the input stream
+     * @param maxLength the maximum number of decompressed bytes
+     * @return the input stream for decoding and decompressing the specified input stream
+     * @throws IllegalArgumentException if maxLength is negative.
+     */
+    public InputStream wrap(InputStream is, long maxLength) {
+        Objects.requireNonNull(is);
+        checkMaxLength(maxLength);
+        return new InflateInputStream(decoder.wrap(is), maxLength);
+    }
+
+    private static class DeflateOutputStream extends DeflaterOutputStream {
+        private final CoderPool<Deflater> pool;
+        private boolean headerWritten = false;
+        private boolean closed = false;
+
+        DeflateOutputStream(OutputStream encoded, CoderPool<Deflater> pool) {
+            this(encoded, pool, pool.borrow());
+        }
+
+        private DeflateOutputStream(OutputStream encoded, CoderPool<Deflater> pool, Deflater deflater) {
+            super(encoded, deflater, BUFFER_SIZE);
+            this.pool = pool;
+        }
+
+        private void writeHeader() throws IOException {
+            if (headerWritten) return;
+            headerWritten = true;
+            out.write(DEFLATED);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+            writeHeader();
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writeHeader();
+            super.finish();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeHeader();
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+
+            try {
+                super.close();
+            } finally {
+                pool.release(def);
+            }
+        }
+    }
+
+    private static class InflateInputStream extends FilterInputStream {
+        private final InputStream decoded;
+        private final byte[] single = new byte[1];
+        private final long maxLength;
+        private long length = 0;
+        private Inflater inflater;
+        private boolean started = false;
+        private boolean ended = false;
+        private boolean closed = false;
+
+        InflateInputStream(InputStream decoded, long maxLength) {
+            super(decoded);
+            this.decoded = decoded;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Reads the header and puts an inflating stream in front of the decoded stream if the data is deflated.
+         */
+        private void start() throws IOException {
+            started = true;
+
+            int header = decoded.read();
+            if (header == -1) throw missingHeader();
+            if (header == STORED) return;
+            if (header != DEFLATED) throw unknownHeader(header);
+
+            inflater = INFLATERS.borrow();
+            in = new InflaterInputStream(decoded, inflater, BUFFER_SIZE);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+            if (!started) start();
+
+            Objects.checkFromIndexSize(off, len, b.length);
+            // Reading one byte more than allowed is enough to tell that the data is too large.
+            long allowed = maxLength - length;
+            int n;
+            try {
+                n = in.read(b, off, allowed < len ? (int) allowed + 1 : len);
+            } catch (ZipException e) {
+                throw corrupted(e);
+            } catch (EOFException e) {
+                throw truncated();
+            }
+
+            if (n == -1 && inflater != null && !ended) {
+                ended = true;
+                if (inflater.getRemaining() > 0 || decoded.read() != -1) throw afterCompressedData();
+            }
+            if (n > allowed) throw tooLarge(maxLength);
+            if (n > 0) length += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+
+            long remaining = n;
+            byte[] scratch = new byte[(int) Math.min(BUFFER_SIZE, Math.max(remaining, 0))];
+            while (remaining > 0) {
+                int read = read(scratch, 0, (int) Math.min(scratch.length, remaining));
+                if (read < 0) break;
+                remaining -= read;
+            }
+            return n - remaining;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {}
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+
+            try {
+                in.close();
+            } finally {
+                if (inflater != null) INFLATERS.release(inflater);
+            }
+        }
+    }
+}
@@ -2,9 +2,19 @@ package net.eewbot.base65536j;
 
 import net.eewbot.base65536j.exception.BufferTooSmallException;
 
-import java.io.*;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class implements an encoder for encoding byte data using the Base65536 encoding scheme follows the
@@ -16,41 +26,127 @@ import java.nio.charset.StandardCharsets;
 public class Base65536Encoder {
     Base65536Encoder() {}
 
-    static final int PAD = 5376;
-    static final int[] CODES = {
-        0x3400, 0x3500, 0x3600, 0x3700, 0x3800, 0x3900, 0x3a00, 0x3b00,
-        0x3c00, 0x3d00, 0x3e00, 0x3f00, 0x4000, 0x4100, 0x4200, 0x4300,
-        0x4400, 0x4500, 0x4600, 0x4700, 0x4800, 0x4900, 0x4a00, 0x4b00,
-        0x4c00, 0x4e00, 0x4f00, 0x5000, 0x5100, 0x5200, 0x5300, 0x5400,
-        0x5500, 0x5600, 0x5700, 0x5800, 0x5900, 0x5a00, 0x5b00, 0x5c00,
-        0x5d00, 0x5e00, 0x5f00, 0x6000, 0x6100, 0x6200, 0x6300, 0x6400,
-        0x6500, 0x6600, 0x6700, 0x6800, 0x6900, 0x6a00, 0x6b00, 0x6c00,
-        0x6d00, 0x6e00, 0x6f00, 0x7000, 0x7100, 0x7200, 0x7300, 0x7400,
-        0x7500, 0x7600, 0x7700, 0x7800, 0x7900, 0x7a00, 0x7b00, 0x7c00,
-        0x7d00, 0x7e00, 0x7f00, 0x8000, 0x8100, 0x8200, 0x8300, 0x8400,
-        0x8500, 0x8600, 0x8700, 0x8800, 0x8900, 0x8a00, 0x8b00, 0x8c00,
-        0x8d00, 0x8e00, 0x8f00, 0x9000, 0x9100, 0x9200, 0x9300, 0x9400,
-        0x9500, 0x9600, 0x9700, 0x9800, 0x9900, 0x9a00, 0x9b00, 0x9c00,
-        0x9d00, 0x9e00, 0xa100, 0xa200, 0xa300, 0xa500, 0x10600, 0x12000,
-        0x12100, 0x12200, 0x13000, 0x13100, 0x13200, 0x13300, 0x14400, 0x14500,
-        0x16800, 0x16900, 0x20000, 0x20100, 0x20200, 0x20300, 0x20400, 0x20500,
-        0x20600, 0x20700, 0x20800, 0x20900, 0x20a00, 0x20b00, 0x20c00, 0x20d00,
-        0x20e00, 0x20f00, 0x21000, 0x21100, 0x21200, 0x21300, 0x21400, 0x21500,
-        0x21600, 0x21700, 0x21800, 0x21900, 0x21a00, 0x21b00, 0x21c00, 0x21d00,
-        0x21e00, 0x21f00, 0x22000, 0x22100, 0x22200, 0x22300, 0x22400, 0x22500,
-        0x22600, 0x22700, 0x22800, 0x22900, 0x22a00, 0x22b00, 0x22c00, 0x22d00,
-        0x22e00, 0x22f00, 0x23000, 0x23100, 0x23200, 0x23300, 0x23400, 0x23500,
-        0x23600, 0x23700, 0x23800, 0x23900, 0x23a00, 0x23b00, 0x23c00, 0x23d00,
-        0x23e00, 0x23f00, 0x24000, 0x24100, 0x24200, 0x24300, 0x24400, 0x24500,
-        0x24600, 0x24700, 0x24800, 0x24900, 0x24a00, 0x24b00, 0x24c00, 0x24d00,
-        0x24e00, 0x24f00, 0x25000, 0x25100, 0x25200, 0x25300, 0x25400, 0x25500,
-        0x25600, 0x25700, 0x25800, 0x25900, 0x25a00, 0x25b00, 0x25c00, 0x25d00,
-        0x25e00, 0x25f00, 0x26000, 0x26100, 0x26200, 0x26300, 0x26400, 0x26500,
-        0x26600, 0x26700, 0x26800, 0x26900, 0x26a00, 0x26b00, 0x26c00, 0x26d00,
-        0x26e00, 0x26f00, 0x27000, 0x27100, 0x27200, 0x27300, 0x27400, 0x27500,
-        0x27600, 0x27700, 0x27800, 0x27900, 0x27a00, 0x27b00, 0x27c00, 0x27d00,
-        0x27e00, 0x27f00, 0x28000, 0x28100, 0x28200, 0x28300, 0x28400, 0x28500
-    };
+    static final int PAD = Base65536Tables.PAD;
+    static final int PAD_UTF8_PREFIX = Base65536Tables.PAD_UTF8_PREFIX;
+    static final int FIRST_SUPPLEMENTARY_INDEX = Base65536Tables.FIRST_SUPPLEMENTARY_INDEX;
+
+    /**
+     * Calculates the exact number of UTF-8 bytes that encoding the given range results in.
+     * Every code point takes three bytes except the ones in supplementary code blocks, which take four.
+     */
+    static long utf8Length(byte[] src, int off, int len) {
+        long length = (long) (len / 2 + len % 2) * 3;
+        return length + CountingKernel.INSTANCE.countPairsAtLeast(src, off, len, FIRST_SUPPLEMENTARY_INDEX);
+    }
+
+    static int toArrayLength(long length) {
+        if (length > Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Encoded size is too large: " + length);
+        return (int) length;
+    }
+
+    /**
+     * Writes the UTF-8 encoded Base65536 code points of the given range to dst, starting at dstOff.
+     * The caller has to make sure dst has the space calculated by {@link #utf8Length(byte[], int, int)}.
+     * @return The number of bytes written to dst.
+     */
+    static int encodeUtf8(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        int end = off + len;
+        int i = off;
+        int o = dstOff;
+
+        for (; i < end - 1; i += 2) {
+            int mostByte = Byte.toUnsignedInt(src[i]);
+            int leastByteIndex = Byte.toUnsignedInt(src[i + 1]);
+            int prefix = Base65536Tables.Utf8Prefixes.TABLE[leastByteIndex];
+
+            if (leastByteIndex < FIRST_SUPPLEMENTARY_INDEX) {
+                dst[o] = (byte) (prefix >>> 8);
+                dst[o + 1] = (byte) (prefix | mostByte >>> 6);
+                dst[o + 2] = (byte) (0x80 | mostByte & 0x3F);
+                o += 3;
+            } else {
+                dst[o] = (byte) (prefix >>> 16);
+                dst[o + 1] = (byte) (prefix >>> 8);
+                dst[o + 2] = (byte) (prefix | mostByte >>> 6);
+                dst[o + 3] = (byte) (0x80 | mostByte & 0x3F);
+                o += 4;
+            }
+        }
+
+        if (i < end) {
+            int mostByte = Byte.toUnsignedInt(src[i]);
+            dst[o] = (byte) (PAD_UTF8_PREFIX >>> 8);
+            dst[o + 1] = (byte) (PAD_UTF8_PREFIX | mostByte >>> 6);
+            dst[o + 2] = (byte) (0x80 | mostByte & 0x3F);
+            o += 3;
+        }
+
+        return o - dstOff;
+    }
+
+    /**
+     * Returns the number of code points that encoding the given number of bytes results in.<br>
+     * Every code point encodes a pair of bytes and an odd byte at the end takes one more code point.
+     * @param srcLength the number of bytes to encode
+     * @return The number of code points of the encoded text.
+     * @throws IllegalArgumentException if srcLength is negative.
+     */
+    public int encodedCodePointLength(int srcLength) {
+        if (srcLength < 0) throw new IllegalArgumentException("Negative length: " + srcLength);
+        return srcLength / 2 + srcLength % 2;
+    }
+
+    /**
+     * Returns the number of chars that encoding all bytes of the specified byte array into a String results in.<br>
+     * Unlike the number of code points, it depends on the bytes, because code points out of the Basic Multilingual
+     * Plane take two chars. This method looks at every other byte once and allocates nothing.
+     * @param src the byte array to encode
+     * @return The length of the String that {@link #encodeToString(byte[])} returns.
+     */
+    public int encodedCharLength(byte[] src) {
+        return encodedCharLength(src, 0, src.length);
+    }
+
+    /**
+     * Returns the number of chars that encoding len bytes of the specified byte array starting at off results in.
+     * @param src the byte array to encode
+     * @param off the start offset in src
+     * @param len the number of bytes to encode
+     * @return The number of chars of the encoded text.
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     * @see #encodedCharLength(byte[])
+     */
+    public int encodedCharLength(byte[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        return toArrayLength(utf8Length(src, off, len) - (long) encodedCodePointLength(len) * 2);
+    }
+
+    /**
+     * Returns the number of bytes that encoding all bytes of the specified byte array into UTF-8 results in, which is
+     * the exact size of the output byte array {@link #encode(byte[], byte[])} needs.<br>
+     * Code points in the Basic Multilingual Plane take three bytes and the others take four. This method looks at
+     * every other byte once and allocates nothing.
+     * @param src the byte array to encode
+     * @return The number of bytes of the UTF-8 encoded text.
+     */
+    public int encodedUtf8Length(byte[] src) {
+        return encodedUtf8Length(src, 0, src.length);
+    }
+
+    /**
+     * Returns the number of bytes that encoding len bytes of the specified byte array starting at off into UTF-8
+     * results in.
+     * @param src the byte array to encode
+     * @param off the start offset in src
+     * @param len the number of bytes to encode
+     * @return The number of bytes of the UTF-8 encoded text.
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     * @see #encodedUtf8Length(byte[])
+     */
+    public int encodedUtf8Length(byte[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        return toArrayLength(utf8Length(src, off, len));
+    }
 
     /**
      * Encodes all bytes from the specified byte array into a newly-allocated byte array using the {@link Base65536}
@@ -59,7 +155,11 @@ public class Base65536Encoder {
      * @return A newly-allocated byte array containing the resulting encoded bytes.
      */
     public byte[] encode(byte[] src) {
-        return encodeToString(src).getBytes(StandardCharsets.UTF_8);
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.ARRAY, src.length);
+        byte[] dst = new byte[toArrayLength(utf8Length(src, 0, src.length))];
+        encodeUtf8(src, 0, src.length, dst, 0);
+        if (probe != null) probe.end(src.length, dst.length);
+        return dst;
     }
 
     /**
@@ -74,10 +174,116 @@ public class Base65536Encoder {
      * @throws BufferTooSmallException if dst does not have enough space for encoding all input bytes.
      */
     public int encode(byte[] src, byte[] dst) {
-        byte[] result = encode(src);
-        if (dst.length < result.length) throw new BufferTooSmallException(result.length, dst.length);
-        System.arraycopy(result, 0, dst, 0, result.length);
-        return result.length;
+        return encode(src, 0, src.length, dst, 0);
+    }
+
+    /**
+     * Encodes len bytes from the specified byte array starting at off using the {@link Base65536} encoding scheme,
+     * writing the resulting bytes to the given output byte array, starting at dstOff.<br>
+     * It is the responsibility of the invoker of this method to make sure the output byte array dst has enough space
+     * for encoding all bytes from the input range. No bytes will be written to the output byte array if the output
+     * byte array is not big enough.
+     * @param src the byte array to encode
+     * @param off the start offset in src
+     * @param len the number of bytes to encode
+     * @param dst the output byte array
+     * @param dstOff the start offset in dst
+     * @return The number of bytes written to the output byte array
+     * @throws IndexOutOfBoundsException if the range of src or dstOff is out of bounds.
+     * @throws BufferTooSmallException if dst does not have enough space for encoding all input bytes.
+     */
+    public int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        Objects.checkIndex(dstOff, dst.length + 1);
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.ARRAY, len);
+        long length = utf8Length(src, off, len);
+        if (dst.length - dstOff < length) {
+            BufferTooSmallException e = new BufferTooSmallException(toArrayLength(length), dst.length - dstOff);
+            if (probe != null) probe.fail(len, e);
+            throw e;
+        }
+
+        int written = encodeUtf8(src, off, len, dst, dstOff);
+        if (probe != null) probe.end(len, written);
+        return written;
+    }
+
+    /**
+     * Encodes len bytes from the specified byte array starting at off using the {@link Base65536} encoding scheme,
+     * appending the resulting characters to the given StringBuilder.
+     * @param src the byte array to encode
+     * @param off the start offset in src
+     * @param len the number of bytes to encode
+     * @param out the StringBuilder to append to
+     * @return The number of chars appended to the StringBuilder
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     */
+    public int encode(byte[] src, int off, int len, StringBuilder out) {
+        Objects.checkFromIndexSize(off, len, src.length);
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, len);
+        int charLength = toArrayLength(utf8Length(src, off, len) - (long) encodedCodePointLength(len) * 2);
+        out.ensureCapacity(out.length() + charLength);
+
+        int end = off + len;
+        for (int i = off; i < end; i += 2) {
+            int codePoint = codePointAt(src, i, end);
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                out.append((char) codePoint);
+            } else {
+                out.append(Character.highSurrogate(codePoint)).append(Character.lowSurrogate(codePoint));
+            }
+        }
+
+        if (probe != null) probe.end(len, charLength);
+        return charLength;
+    }
+
+    /**
+     * Encodes len bytes from the specified byte array starting at off using the {@link Base65536} encoding scheme,
+     * appending the resulting characters to the given Appendable.
+     * @param src the byte array to encode
+     * @param off the start offset in src
+     * @param len the number of bytes to encode
+     * @param out the Appendable to append to
+     * @return The number of chars appended to the Appendable
+     * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+     * @throws IOException if the Appendable throws it.
+     */
+    public int encode(byte[] src, int off, int len, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) return encode(src, off, len, (StringBuilder) out);
+        Objects.checkFromIndexSize(off, len, src.length);
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, len);
+        int charLength = 0;
+        int end = off + len;
+        try {
+            for (int i = off; i < end; i += 2) {
+                int codePoint = codePointAt(src, i, end);
+                if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    out.append((char) codePoint);
+                    charLength++;
+                } else {
+                    out.append(Character.highSurrogate(codePoint)).append(Character.lowSurrogate(codePoint));
+                    charLength += 2;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (probe != null) probe.fail(len, e);
+            throw e;
+        }
+
+        if (probe != null) probe.end(len, charLength);
+        return charLength;
+    }
+
+    /**
+     * Returns the code point encoding the pair of bytes at i, or the single byte at i with padding if it's the last.
+     */
+    private static int codePointAt(byte[] src, int i, int end) {
+        int mostByte = Byte.toUnsignedInt(src[i]);
+        return (i + 1 < end ? Base65536Tables.Codes.TABLE[Byte.toUnsignedInt(src[i + 1])] : PAD) + mostByte;
     }
 
     /**
@@ -89,9 +295,166 @@ public class Base65536Encoder {
      * @return A newly-allocated byte buffer containing the encoded bytes.
      */
     public ByteBuffer encode(ByteBuffer buffer) {
-        byte[] src = new byte[buffer.remaining()];
-        buffer.get(src);
-        return ByteBuffer.wrap(encode(src));
+        byte[] src;
+        int off;
+        int len = buffer.remaining();
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.BUFFER, len);
+
+        if (buffer.hasArray()) {
+            src = buffer.array();
+            off = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.limit());
+        } else {
+            src = new byte[len];
+            off = 0;
+            buffer.get(src);
+        }
+
+        byte[] dst = new byte[toArrayLength(utf8Length(src, off, len))];
+        encodeUtf8(src, off, len, dst, 0);
+        if (probe != null) probe.end(len, dst.length);
+        return ByteBuffer.wrap(dst);
+    }
+
+    /**
+     * Encodes as many bytes as possible from the source buffer using the {@link Base65536} encoding scheme, writing
+     * the resulting UTF-8 bytes to the destination buffer, in the same manner as
+     * {@link java.nio.charset.CharsetEncoder#encode(java.nio.CharBuffer, ByteBuffer, boolean)}.<br>
+     * The positions of both buffers are advanced by the number of bytes read and written; their limits are not changed.
+     * Both heap and direct buffers are accessed in place and nothing is allocated, so this method can be invoked
+     * repeatedly, for example in a selector loop, while compacting and refilling the buffers in between.<br>
+     * An odd byte at the end of the source buffer is only encoded, with the padding code point, when endOfInput is
+     * true. Otherwise it is left in the source buffer to be paired with the next input.
+     * @param src the source buffer
+     * @param dst the destination buffer
+     * @param endOfInput true if, and only if, the invoker can provide no additional input bytes beyond those in the
+     *                   given buffer
+     * @return {@link CoderResult#UNDERFLOW} if as much input as possible was encoded, or {@link CoderResult#OVERFLOW}
+     *         if there is insufficient room in the destination buffer to encode the next code point.
+     */
+    public CoderResult encode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) return encodeArrayLoop(src, dst, endOfInput);
+        return encodeBufferLoop(src, dst, endOfInput);
+    }
+
+    private static CoderResult encodeArrayLoop(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+        byte[] sa = src.array();
+        int sp = src.arrayOffset() + src.position();
+        int sl = src.arrayOffset() + src.limit();
+        byte[] da = dst.array();
+        int dp = dst.arrayOffset() + dst.position();
+        int dl = dst.arrayOffset() + dst.limit();
+
+        try {
+            while (sl - sp >= 2) {
+                int pairs = Math.min((sl - sp) / 2, (dl - dp) / 4);
+                if (pairs == 0) {
+                    int width = Byte.toUnsignedInt(sa[sp + 1]) < FIRST_SUPPLEMENTARY_INDEX ? 3 : 4;
+                    if (dl - dp < width) return CoderResult.OVERFLOW;
+                    pairs = 1;
+                }
+
+                dp += encodeUtf8(sa, sp, pairs * 2, da, dp);
+                sp += pairs * 2;
+            }
+
+            if (sp < sl && endOfInput) {
+                if (dl - dp < 3) return CoderResult.OVERFLOW;
+                dp += encodeUtf8(sa, sp, 1, da, dp);
+                sp++;
+            }
+
+            return CoderResult.UNDERFLOW;
+        } finally {
+            src.position(sp - src.arrayOffset());
+            dst.position(dp - dst.arrayOffset());
+        }
+    }
+
+    private static CoderResult encodeBufferLoop(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+        int sp = src.position();
+        int sl = src.limit();
+        int dp = dst.position();
+        int dl = dst.limit();
+
+        try {
+            while (sp < sl) {
+                int mostByte = Byte.toUnsignedInt(src.get(sp));
+                int prefix;
+                int width;
+
+                if (sl - sp >= 2) {
+                    int leastByteIndex = Byte.toUnsignedInt(src.get(sp + 1));
+                    prefix = Base65536Tables.Utf8Prefixes.TABLE[leastByteIndex];
+                    width = leastByteIndex < FIRST_SUPPLEMENTARY_INDEX ? 3 : 4;
+                } else if (endOfInput) {
+                    prefix = PAD_UTF8_PREFIX;
+                    width = 3;
+                } else {
+                    break;
+                }
+
+                if (dl - dp < width) return CoderResult.OVERFLOW;
+
+                if (width == 4) dst.put(dp++, (byte) (prefix >>> 16));
+                dst.put(dp, (byte) (prefix >>> 8));
+                dst.put(dp + 1, (byte) (prefix | mostByte >>> 6));
+                dst.put(dp + 2, (byte) (0x80 | mostByte & 0x3F));
+                dp += 3;
+                sp += Math.min(2, sl - sp);
+            }
+
+            return CoderResult.UNDERFLOW;
+        } finally {
+            src.position(sp);
+            dst.position(dp);
+        }
+    }
+
+    /**
+     * Encodes as many bytes as possible from the source buffer using the {@link Base65536} encoding scheme, writing
+     * the resulting chars to the destination buffer, in the same manner as
+     * {@link #encode(ByteBuffer, ByteBuffer, boolean)}. A code point out of the Basic Multilingual Plane is only written
+     * when both of its surrogates fit.
+     * @param src the source buffer
+     * @param dst the destination buffer
+     * @param endOfInput true if, and only if, the invoker can provide no additional input bytes beyond those in the
+     *                   given buffer
+     * @return {@link CoderResult#UNDERFLOW} if as much input as possible was encoded, or {@link CoderResult#OVERFLOW}
+     *         if there is insufficient room in the destination buffer to encode the next code point.
+     */
+    public CoderResult encode(ByteBuffer src, CharBuffer dst, boolean endOfInput) {
+        int sp = src.position();
+        int sl = src.limit();
+        int dp = dst.position();
+        int dl = dst.limit();
+
+        try {
+            while (sl - sp >= 2) {
+                int codePoint = Base65536Tables.Codes.TABLE[Byte.toUnsignedInt(src.get(sp + 1))]
+                    + Byte.toUnsignedInt(src.get(sp));
+                if (Character.isBmpCodePoint(codePoint)) {
+                    if (dl - dp < 1) return CoderResult.OVERFLOW;
+                    dst.put(dp++, (char) codePoint);
+                } else {
+                    if (dl - dp < 2) return CoderResult.OVERFLOW;
+                    dst.put(dp++, Character.highSurrogate(codePoint));
+                    dst.put(dp++, Character.lowSurrogate(codePoint));
+                }
+                sp += 2;
+            }
+
+            if (sp < sl && endOfInput) {
+                if (dl - dp < 1) return CoderResult.OVERFLOW;
+                dst.put(dp++, (char) (PAD + Byte.toUnsignedInt(src.get(sp))));
+                sp++;
+            }
+
+            return CoderResult.UNDERFLOW;
+        } finally {
+            src.position(sp);
+            dst.position(dp);
+        }
     }
 
     /**
@@ -102,29 +465,515 @@ public class Base65536Encoder {
     public String encodeToString(byte[] src) {
         if (src.length == 0) return "";
 
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, src.length);
         int[] codePoints = new int[src.length / 2 + src.length % 2];
         int i = 0;
 
         for (; i < src.length - 2; i += 2) {
             int mostByte = Byte.toUnsignedInt(src[i]);
             int leastByteIndex = Byte.toUnsignedInt(src[i + 1]);
-            codePoints[i / 2] = CODES[leastByteIndex] + mostByte;
+            codePoints[i / 2] = Base65536Tables.Codes.TABLE[leastByteIndex] + mostByte;
         }
 
         int mostByte = Byte.toUnsignedInt(src[i]);
-        int leastByte = i + 1 < src.length ? CODES[Byte.toUnsignedInt(src[i + 1])] : PAD;
+        int leastByte = i + 1 < src.length ? Base65536Tables.Codes.TABLE[Byte.toUnsignedInt(src[i + 1])] : PAD;
         codePoints[i / 2] = leastByte + mostByte;
 
-        return new String(codePoints, 0, codePoints.length);
+        String encoded = new String(codePoints, 0, codePoints.length);
+        if (probe != null) probe.end(src.length, encoded.length());
+        return encoded;
+    }
+
+    /**
+     * Encodes all bytes from the specified byte array into a newly-allocated byte array using the {@link Base65536}
+     * encoding scheme, splitting the work over the {@link ForkJoinPool#commonPool() common pool}.
+     * @param src the byte array to encode
+     * @return A newly-allocated byte array containing the resulting encoded bytes.
+     * @see #encodeParallel(byte[], ForkJoinPool)
+     */
+    public byte[] encodeParallel(byte[] src) {
+        return encodeParallel(src, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Encodes all bytes from the specified byte array into a newly-allocated byte array using the {@link Base65536}
+     * encoding scheme, splitting the work over the given pool.<br>
+     * Every pair of bytes is encoded into one code point, so the input is split into chunks at even offsets. The UTF-8
+     * length of every chunk is calculated in parallel first, then every chunk is encoded into its own range of the
+     * output. Small inputs are encoded on the calling thread, in the same way as {@link #encode(byte[])}.
+     * @param src the byte array to encode
+     * @param pool the pool to run the work on
+     * @return A newly-allocated byte array containing the resulting encoded bytes.
+     */
+    public byte[] encodeParallel(byte[] src, ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        if (src.length < ParallelSupport.THRESHOLD) return encode(src);
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.PARALLEL, src.length);
+        int chunkLength = ParallelSupport.chunkLength(src.length, pool);
+        int chunkCount = ParallelSupport.chunkCount(src.length, chunkLength);
+
+        long[] offsets = new long[chunkCount + 1];
+        ParallelSupport.invokeAll(pool, chunkCount, k -> {
+            int off = k * chunkLength;
+            offsets[k + 1] = utf8Length(src, off, Math.min(chunkLength, src.length - off));
+        });
+        for (int k = 0; k < chunkCount; k++) offsets[k + 1] += offsets[k];
+
+        byte[] dst = new byte[toArrayLength(offsets[chunkCount])];
+        ParallelSupport.invokeAll(pool, chunkCount, k -> {
+            int off = k * chunkLength;
+            encodeUtf8(src, off, Math.min(chunkLength, src.length - off), dst, (int) offsets[k]);
+        });
+
+        if (probe != null) probe.end(src.length, dst.length);
+        return dst;
+    }
+
+    /**
+     * Encodes the specified byte array into a String using the {@link Base65536} encoding scheme, splitting the work
+     * over the {@link ForkJoinPool#commonPool() common pool}.
+     * @param src the byte array to encode
+     * @return A string containing the resulting Base65536 encoded characters.
+     * @see #encodeToStringParallel(byte[], ForkJoinPool)
+     */
+    public String encodeToStringParallel(byte[] src) {
+        return encodeToStringParallel(src, ForkJoinPool.commonPool());
     }
 
     /**
-     * Not yet implemented.
-     * @param os Not yet implemented.
-     * @return Not yet implemented.
-     * @throws UnsupportedOperationException Always throw this because not yet implemented.
+     * Encodes the specified byte array into a String using the {@link Base65536} encoding scheme, splitting the work
+     * over the given pool in the same way as {@link #encodeParallel(byte[], ForkJoinPool)}.
+     * Small inputs are encoded on the calling thread, in the same way as {@link #encodeToString(byte[])}.
+     * @param src the byte array to encode
+     * @param pool the pool to run the work on
+     * @return A string containing the resulting Base65536 encoded characters.
+     */
+    public String encodeToStringParallel(byte[] src, ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        if (src.length < ParallelSupport.THRESHOLD) return encodeToString(src);
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.PARALLEL, src.length);
+        int chunkLength = ParallelSupport.chunkLength(src.length, pool);
+        int chunkCount = ParallelSupport.chunkCount(src.length, chunkLength);
+
+        long[] offsets = new long[chunkCount + 1];
+        ParallelSupport.invokeAll(pool, chunkCount, k -> {
+            int off = k * chunkLength;
+            int len = Math.min(chunkLength, src.length - off);
+            offsets[k + 1] = utf8Length(src, off, len) - (long) encodedCodePointLength(len) * 2;
+        });
+        for (int k = 0; k < chunkCount; k++) offsets[k + 1] += offsets[k];
+
+        char[] dst = new char[toArrayLength(offsets[chunkCount])];
+        ParallelSupport.invokeAll(pool, chunkCount, k -> {
+            int off = k * chunkLength;
+            encodeChars(src, off, Math.min(chunkLength, src.length - off), dst, (int) offsets[k]);
+        });
+
+        if (probe != null) probe.end(src.length, dst.length);
+        return new String(dst);
+    }
+
+    /**
+     * Encodes every message of the list using the {@link Base65536} encoding scheme, writing the resulting UTF-8 bytes
+     * back to back into a single newly-allocated byte array.<br>
+     * The encoded length of every message is calculated first, then every message is encoded at its offset, so the
+     * cost per message is close to the one of the encoding loop itself.
+     * @param messages the byte arrays to encode
+     * @return The batch of the encoded messages, in the order of the list.
+     */
+    public Base65536Batch encodeBatch(List<byte[]> messages) {
+        return encodeBatch(messages.toArray(new byte[0][]), null);
+    }
+
+    /**
+     * Encodes every message of the list in the same way as {@link #encodeBatch(List)}, splitting the work over the
+     * given pool in chunks of consecutive messages. Small batches are encoded on the calling thread.
+     * @param messages the byte arrays to encode
+     * @param pool the pool to run the work on
+     * @return The batch of the encoded messages, in the order of the list.
+     */
+    public Base65536Batch encodeBatch(List<byte[]> messages, ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        return encodeBatch(messages.toArray(new byte[0][]), pool);
+    }
+
+    /**
+     * Encodes the messages on the pool, or on the calling thread if pool is null or the batch is small.
+     */
+    private static Base65536Batch encodeBatch(byte[][] src, ForkJoinPool pool) {
+        long inputLength = 0;
+        for (byte[] message : src) inputLength += message.length;
+        ForkJoinPool workers = inputLength < ParallelSupport.THRESHOLD ? null : pool;
+
+        Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.BATCH, inputLength);
+        int[] offsets = new int[src.length + 1];
+        ParallelSupport.forEachMessage(workers, src.length, i ->
+            offsets[i + 1] = toArrayLength(utf8Length(src[i], 0, src[i].length))
+        );
+
+        long length = 0;
+        for (int i = 0; i < src.length; i++) {
+            length += offsets[i + 1];
+            offsets[i + 1] = toArrayLength(length);
+        }
+
+        byte[] dst = new byte[offsets[src.length]];
+        ParallelSupport.forEachMessage(workers, src.length, i -> encodeUtf8(src[i], 0, src[i].length, dst, offsets[i]));
+
+        if (probe != null) probe.end(inputLength, dst.length);
+        return new Base65536Batch(dst, offsets);
+    }
+
+    /**
+     * Writes the Base65536 code points of the given range to dst in UTF-16, starting at dstOff.
+     * @return The number of chars written to dst.
+     */
+    static int encodeChars(byte[] src, int off, int len, char[] dst, int dstOff) {
+        int end = off + len;
+        int o = dstOff;
+
+        for (int i = off; i < end; i += 2) {
+            int codePoint = codePointAt(src, i, end);
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                dst[o++] = (char) codePoint;
+            } else {
+                dst[o++] = Character.highSurrogate(codePoint);
+                dst[o++] = Character.lowSurrogate(codePoint);
+            }
+        }
+
+        return o - dstOff;
+    }
+
+    /**
+     * Encodes all bytes of the input file using the {@link Base65536} encoding scheme, writing the resulting UTF-8
+     * bytes to the output file. The output file is created, or truncated if it already exists.<br>
+     * Both files are accessed through memory-mapped windows and staged through small fixed-size buffers, so files
+     * larger than an array can be encoded with constant heap use. The input file is read twice: once to calculate
+     * the exact size of the output file, and once to encode it.<br>
+     * The input file must not be modified while it is encoded.
+     * @param in the path of the file to encode
+     * @param out the path of the file to write the encoded bytes to
+     * @return The number of bytes written to the output file.
+     * @throws IOException if an I/O error occurs.
+     */
+    public long encode(Path in, Path out) throws IOException {
+        Base65536Metrics.Probe probe = null;
+        long read = 0;
+        try (
+            FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+            FileChannel dst = FileChannel.open(
+                out,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            )
+        ) {
+            byte[] chunk = new byte[MappedFileSupport.CHUNK_SIZE];
+            int n;
+
+            probe = probe(Base65536Metrics.Mode.FILE, src.size());
+            long length = 0;
+            MappedFileSupport.Reader reader = new MappedFileSupport.Reader(src);
+            while ((n = reader.read(chunk, 0, chunk.length)) != -1) length += utf8Length(chunk, 0, n);
+
+            byte[] encoded = new byte[MappedFileSupport.CHUNK_SIZE * 2];
+            reader = new MappedFileSupport.Reader(src);
+            MappedFileSupport.Writer writer = new MappedFileSupport.Writer(dst, length);
+            while ((n = reader.read(chunk, 0, chunk.length)) != -1) {
+                writer.write(encoded, 0, encodeUtf8(chunk, 0, n, encoded, 0));
+                read += n;
+            }
+
+            if (probe != null) probe.end(read, length);
+            return length;
+        } catch (IOException | RuntimeException e) {
+            if (probe != null) probe.fail(read, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts measuring a one-shot encoding for {@link Base65536Metrics}.
+     */
+    private static Base65536Metrics.Probe probe(Base65536Metrics.Mode mode, long inputLength) {
+        return Base65536Metrics.start(Base65536Metrics.Operation.ENCODE, mode, inputLength);
+    }
+
+    /**
+     * Wraps an output stream for encoding byte data using the {@link Base65536} encoding scheme.<br>
+     * The encoded code points are written to the underlying output stream in UTF-8, in chunks of a fixed-size buffer
+     * which is reused for the life of the returned stream, so memory use doesn't depend on the amount of data.<br>
+     * It is recommended to promptly close the returned output stream after use, during which it will flush all possible
+     * leftover bytes, including the padding code point for an odd number of bytes, to the underlying output stream.
+     * Closing the returned output stream will close the underlying output stream.
+     * @param os the output stream.
+     * @return the output stream for encoding the byte data into the specified Base65536 encoded format
      */
     public OutputStream wrap(OutputStream os) {
-        throw new UnsupportedOperationException("Not yet implemented");
+        Objects.requireNonNull(os);
+        return new EncOutputStream(os);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which encodes a stream of byte buffers into UTF-8, passing copies of
+     * output buffers of the default size.
+     * @return A new encoding stage.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, ByteBuffer> newProcessor() {
+        return newProcessor(Base65536Processor.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which encodes a stream of byte buffers into UTF-8, passing copies of
+     * output buffers of the given size.
+     * @param bufferSize the capacity of the output buffers in bytes, at least 4
+     * @return A new encoding stage.
+     * @throws IllegalArgumentException if bufferSize is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, ByteBuffer> newProcessor(int bufferSize) {
+        return Base65536Processor.encoding(this, bufferSize, 0, false);
+    }
+
+    /**
+     * Returns a new pooled {@link Flow.Processor} stage which encodes a stream of byte buffers into UTF-8, passing the
+     * output buffers of its pool, which the subscriber has to hand back with {@link Base65536Processor#release}.
+     * @param bufferSize the capacity of the output buffers in bytes, at least 4
+     * @param maxBuffers the maximum number of output buffers in flight, at least 1
+     * @return A new pooled encoding stage.
+     * @throws IllegalArgumentException if bufferSize or maxBuffers is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, ByteBuffer> newPooledProcessor(int bufferSize, int maxBuffers) {
+        return Base65536Processor.encoding(this, bufferSize, maxBuffers, true);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which encodes a stream of byte buffers into chars, passing copies of
+     * output buffers of the default size.
+     * @return A new encoding stage.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, CharBuffer> newCharProcessor() {
+        return newCharProcessor(Base65536Processor.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns a new {@link Flow.Processor} stage which encodes a stream of byte buffers into chars, passing copies of
+     * output buffers of the given size.
+     * @param bufferSize the capacity of the output buffers in chars, at least 4
+     * @return A new encoding stage.
+     * @throws IllegalArgumentException if bufferSize is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, CharBuffer> newCharProcessor(int bufferSize) {
+        return Base65536Processor.encodingToChars(this, bufferSize, 0, false);
+    }
+
+    /**
+     * Returns a new pooled {@link Flow.Processor} stage which encodes a stream of byte buffers into chars, passing the
+     * output buffers of its pool, which the subscriber has to hand back with {@link Base65536Processor#release}.
+     * @param bufferSize the capacity of the output buffers in chars, at least 4
+     * @param maxBuffers the maximum number of output buffers in flight, at least 1
+     * @return A new pooled encoding stage.
+     * @throws IllegalArgumentException if bufferSize or maxBuffers is too small.
+     * @see Base65536Processor
+     */
+    public Base65536Processor<ByteBuffer, CharBuffer> newPooledCharProcessor(int bufferSize, int maxBuffers) {
+        return Base65536Processor.encodingToChars(this, bufferSize, maxBuffers, true);
+    }
+
+    /**
+     * Returns a new context for encoding many payloads on one thread without allocation.
+     * @return A new context with empty scratch buffers.
+     */
+    public Context newContext() {
+        return new Context();
+    }
+
+    /**
+     * A reusable holder of scratch buffers for encoding many small payloads, for example messages on a hot path,
+     * without allocating anything in the steady state.<br>
+     * Every method encodes in a single pass into a scratch array owned by the context, which is sized for the largest
+     * possible result and grows with the largest payload seen, and returns a view of the result in it. The same view
+     * instance is returned by every call, so a result is only valid until the next call on the same context.<br>
+     * Instances of this class are not safe for use by multiple concurrent threads. Keep one per thread, for example in
+     * a {@link ThreadLocal}.
+     */
+    public static final class Context {
+        private byte[] bytes = new byte[0];
+        private ByteBuffer byteView = ByteBuffer.wrap(bytes);
+        private char[] chars = new char[0];
+        private CharBuffer charView = CharBuffer.wrap(chars);
+
+        private Context() {}
+
+        /**
+         * Encodes all bytes from the specified byte array into UTF-8 using the {@link Base65536} encoding scheme.
+         * @param src the byte array to encode
+         * @return A view of the encoded bytes, whose position is zero and whose limit is their length.
+         */
+        public ByteBuffer encode(byte[] src) {
+            return encode(src, 0, src.length);
+        }
+
+        /**
+         * Encodes len bytes from the specified byte array starting at off into UTF-8 using the {@link Base65536}
+         * encoding scheme.
+         * @param src the byte array to encode
+         * @param off the start offset in src
+         * @param len the number of bytes to encode
+         * @return A view of the encoded bytes, whose position is zero and whose limit is their length.
+         * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+         */
+        public ByteBuffer encode(byte[] src, int off, int len) {
+            Objects.checkFromIndexSize(off, len, src.length);
+
+            Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.ARRAY, len);
+            int capacity = toArrayLength((len + 1L) / 2 * 4);
+            if (bytes.length < capacity) {
+                bytes = new byte[capacity];
+                byteView = ByteBuffer.wrap(bytes);
+            }
+
+            int written = encodeUtf8(src, off, len, bytes, 0);
+            if (probe != null) probe.end(len, written);
+            return byteView.clear().limit(written);
+        }
+
+        /**
+         * Encodes len bytes from the specified byte array starting at off into UTF-16 chars using the
+         * {@link Base65536} encoding scheme.
+         * @param src the byte array to encode
+         * @param off the start offset in src
+         * @param len the number of bytes to encode
+         * @return A view of the encoded chars, whose position is zero and whose limit is their length.
+         * @throws IndexOutOfBoundsException if the range of src is out of bounds.
+         */
+        public CharBuffer encodeToChars(byte[] src, int off, int len) {
+            Objects.checkFromIndexSize(off, len, src.length);
+
+            Base65536Metrics.Probe probe = probe(Base65536Metrics.Mode.STRING, len);
+            int capacity = toArrayLength((len + 1L) / 2 * 2);
+            if (chars.length < capacity) {
+                chars = new char[capacity];
+                charView = CharBuffer.wrap(chars);
+            }
+
+            int written = encodeChars(src, off, len, chars, 0);
+            if (probe != null) probe.end(len, written);
+            return charView.clear().limit(written);
+        }
+    }
+
+    private static class EncOutputStream extends FilterOutputStream {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] pair = new byte[2];
+        private int position = 0;
+        private int leftover = -1;
+        private boolean closed = false;
+        private final Base65536Metrics.Probe probe =
+            Base65536Metrics.startStream(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.STREAM);
+        private long read = 0;
+        private long written = 0;
+
+        EncOutputStream(OutputStream os) {
+            super(os);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+            read++;
+
+            if (leftover < 0) {
+                leftover = b & 0xFF;
+                return;
+            }
+
+            pair[0] = (byte) leftover;
+            pair[1] = (byte) b;
+            leftover = -1;
+            writeCodePoints(pair, 0, 2);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) return;
+            read += len;
+
+            if (leftover >= 0) {
+                pair[0] = (byte) leftover;
+                pair[1] = b[off];
+                leftover = -1;
+                writeCodePoints(pair, 0, 2);
+                off++;
+                len--;
+            }
+
+            int evenLength = len & ~1;
+            writeCodePoints(b, off, evenLength);
+            if (evenLength < len) leftover = Byte.toUnsignedInt(b[off + evenLength]);
+        }
+
+        /**
+         * Encodes an even number of bytes into the buffer, flushing it to the underlying stream whenever it is full.
+         */
+        private void writeCodePoints(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (BUFFER_SIZE - position < 4) flushBuffer();
+
+                int chunk = Math.min(len, (BUFFER_SIZE - position) / 4 * 2);
+                position += encodeUtf8(b, off, chunk, buffer, position);
+                off += chunk;
+                len -= chunk;
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            if (position > 0) {
+                out.write(buffer, 0, position);
+                written += position;
+                position = 0;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (closed) throw new IOException("Stream is closed");
+            flushBuffer();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+
+            try {
+                if (leftover >= 0) {
+                    if (BUFFER_SIZE - position < 3) flushBuffer();
+                    pair[0] = (byte) leftover;
+                    position += encodeUtf8(pair, 0, 1, buffer, position);
+                    leftover = -1;
+                }
+                flushBuffer();
+            } catch (IOException | RuntimeException e) {
+                if (probe != null) probe.fail(read, e);
+                throw e;
+            } finally {
+                out.close();
+            }
+            if (probe != null) probe.end(read, written);
+        }
     }
 }
@@ -0,0 +1,242 @@
+package net.eewbot.base65536j;
+
+import jdk.jfr.EventType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class consists exclusively of static methods for observing the encoding and decoding work of
+ * {@link Base65536Encoder} and {@link Base65536Decoder}.<br>
+ * Every operation on a payload of at least {@link #getThreshold() the threshold} bytes is reported to the registered
+ * {@link Listener listeners} and, while a recording enables it, emitted as a {@code net.eewbot.base65536j.Operation}
+ * JDK Flight Recorder event. Operations are the one-shot array, String, buffer, file and parallel methods, and the
+ * whole life of a stream returned by {@code wrap} or of a {@link Base65536Processor}, which is reported when the
+ * stream is closed or ends. The incremental {@code encode(ByteBuffer, ByteBuffer, boolean)},
+ * {@code decode(ByteBuffer, ByteBuffer, boolean)} and their CharBuffer variants are not reported, since every call
+ * handles only a part of a payload, and neither is {@code tryDecode}, whose failures are results rather than
+ * exceptions.<br>
+ * When no listener is registered and the event is disabled, an operation costs a comparison and a volatile read.<br>
+ * The {@code jdk.jfr} module is an optional dependency. Its classes are only loaded once it is known to be in the
+ * runtime, so the library also runs on images which leave it out, reporting to the listeners only.<br>
+ * The threshold is initialized from the {@value #THRESHOLD_PROPERTY} system property, 1024 by default.
+ */
+public final class Base65536Metrics {
+    private Base65536Metrics() {}
+
+    static final String THRESHOLD_PROPERTY = "net.eewbot.base65536j.metrics.threshold";
+
+    /**
+     * The direction of an operation.
+     */
+    public enum Operation {
+        ENCODE,
+        DECODE
+    }
+
+    /**
+     * The kind of entry point an operation went through.
+     */
+    public enum Mode {
+        /**
+         * The methods taking and returning byte arrays.
+         */
+        ARRAY,
+        /**
+         * The methods taking or returning Strings, CharSequences, char arrays or Appendables.
+         */
+        STRING,
+        /**
+         * The methods taking and returning ByteBuffers.
+         */
+        BUFFER,
+        /**
+         * The streams returned by {@code wrap} and the {@link Base65536Processor} stages.
+         */
+        STREAM,
+        /**
+         * The methods taking file paths.
+         */
+        FILE,
+        /**
+         * The methods splitting the work over a ForkJoinPool. Inputs too small to split are reported as
+         * {@link #ARRAY} or {@link #STRING}, since they are handled in the same way as by those methods.
+         */
+        PARALLEL,
+        /**
+         * The methods encoding or decoding a batch of messages into a {@link Base65536Batch}. The lengths are the
+         * totals of all messages.
+         */
+        BATCH
+    }
+
+    /**
+     * Receives the measurements of operations, for example to feed them into histograms of a metrics framework.<br>
+     * Listeners are called on the thread which did the operation, right after it, so they should be quick. An
+     * exception thrown by a listener is dropped, so that it neither fails a completed operation nor replaces the
+     * exception of a failed one, and the other listeners are still called.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called when an operation completes or fails.
+         * @param operation the direction of the operation
+         * @param mode the kind of entry point the operation went through
+         * @param inputLength the number of bytes or chars read, which may be partial for a failed operation
+         * @param outputLength the number of bytes or chars written, or 0 for a failed operation
+         * @param durationNanos the elapsed time of the operation in nanoseconds
+         * @param failure the exception the operation failed with, or null if it completed
+         */
+        void onOperation(
+            Operation operation,
+            Mode mode,
+            long inputLength,
+            long outputLength,
+            long durationNanos,
+            Throwable failure
+        );
+    }
+
+    /**
+     * Holds the event type, so that JFR is only set up by the first operation which may be reported, not by the first
+     * call of the library. It is null if the runtime has no {@code jdk.jfr} module, in which case neither the event
+     * type nor {@link OperationEvent} is ever loaded.
+     */
+    private static final class EventTypeHolder {
+        static final EventType EVENT_TYPE =
+            ModuleLayer.boot().findModule("jdk.jfr").isPresent() ? EventType.getEventType(OperationEvent.class) : null;
+    }
+
+    private static final Listener[] NO_LISTENERS = {};
+
+    private static volatile long threshold = Long.getLong(THRESHOLD_PROPERTY, 1024);
+    private static volatile Listener[] listeners = NO_LISTENERS;
+
+    /**
+     * Returns the smallest input length, in bytes or chars, of the operations which are reported.
+     * @return The threshold.
+     */
+    public static long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the smallest input length, in bytes or chars, of the operations which are reported.
+     * @param threshold the threshold, 0 to report every operation
+     * @throws IllegalArgumentException if threshold is negative.
+     */
+    public static void setThreshold(long threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("Negative threshold: " + threshold);
+        Base65536Metrics.threshold = threshold;
+    }
+
+    /**
+     * Registers a listener, which is called for every reported operation from then on.
+     * @param listener the listener to add
+     */
+    public static synchronized void addListener(Listener listener) {
+        Objects.requireNonNull(listener);
+        Listener[] current = listeners;
+        Listener[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = listener;
+        listeners = added;
+    }
+
+    /**
+     * Unregisters a listener. Nothing happens if it is not registered.
+     * @param listener the listener to remove
+     * @return true if the listener was registered.
+     */
+    public static synchronized boolean removeListener(Listener listener) {
+        Listener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                Listener[] removed = new Listener[current.length - 1];
+                System.arraycopy(current, 0, removed, 0, i);
+                System.arraycopy(current, i + 1, removed, i, current.length - i - 1);
+                listeners = removed;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts measuring an operation on an input of the given length.
+     * @return A probe to end the measurement with, or null if the operation is not reported.
+     */
+    static Probe start(Operation operation, Mode mode, long inputLength) {
+        if (inputLength < threshold) return null;
+        return startStream(operation, mode);
+    }
+
+    /**
+     * Starts measuring an operation whose input length is only known at its end, such as the life of a stream. The
+     * threshold is applied when the probe ends.
+     * @return A probe to end the measurement with, or null if the operation is not reported.
+     */
+    static Probe startStream(Operation operation, Mode mode) {
+        Listener[] current = listeners;
+        EventType eventType = EventTypeHolder.EVENT_TYPE;
+        boolean eventEnabled = eventType != null && eventType.isEnabled();
+        if (current.length == 0 && !eventEnabled) return null;
+
+        return new Probe(operation, mode, current, eventEnabled ? new OperationEvent() : null);
+    }
+
+    /**
+     * The measurement of a single operation.
+     */
+    static final class Probe {
+        private final Operation operation;
+        private final Mode mode;
+        private final Listener[] listeners;
+        private final OperationEvent event;
+        private final long startNanos;
+        private boolean ended = false;
+
+        private Probe(Operation operation, Mode mode, Listener[] listeners, OperationEvent event) {
+            this.operation = operation;
+            this.mode = mode;
+            this.listeners = listeners;
+            this.event = event;
+            if (event != null) event.begin();
+            this.startNanos = System.nanoTime();
+        }
+
+        void end(long inputLength, long outputLength) {
+            report(inputLength, outputLength, null);
+        }
+
+        void fail(long inputLength, Throwable failure) {
+            report(inputLength, 0, failure);
+        }
+
+        private void report(long inputLength, long outputLength, Throwable failure) {
+            if (ended) return;
+            ended = true;
+            if (inputLength < threshold) return;
+
+            long durationNanos = System.nanoTime() - startNanos;
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = operation.name();
+                    event.mode = mode.name();
+                    event.inputSize = inputLength;
+                    event.outputSize = outputLength;
+                    event.failure = failure == null ? null : failure.getClass().getSimpleName();
+                    event.commit();
+                }
+            }
+
+            for (Listener listener : listeners) {
+                try {
+                    listener.onOperation(operation, mode, inputLength, outputLength, durationNanos, failure);
+                } catch (RuntimeException ignored) {
+                    // A broken listener must not change the outcome of the operation it observes.
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package net.eewbot.base65536j;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link Flow.Processor} stage which encodes or decodes a stream of buffers using the {@link Base65536} encoding
+ * scheme, created by {@code newProcessor}, {@code newCharProcessor} or their pooled variants of
+ * {@link Base65536Encoder} and {@link Base65536Decoder}.<br>
+ * The input may be split anywhere: an odd byte, a UTF-8 sequence or a surrogate pair cut off by the end of a buffer is
+ * carried over to the next one, as is the padding code point, which may only be decoded at the end of the input. A
+ * lenient decoding stage drops the whitespace following the padding code point instead of carrying it over, so the
+ * carried-over data never grows beyond a code point. Every input buffer is read to its end before the next one is
+ * requested, after which the publisher may reuse it.<br>
+ * The stage follows the demand of its subscriber. It requests one input buffer at a time from upstream, and only while
+ * the subscriber has outstanding demand. The coded data is written into an output buffer of {@code bufferSize}
+ * elements, which is passed on when it is full, or when the stage runs out of input with data in it.<br>
+ * By default every buffer passed to {@code onNext} is a new one holding a copy of the output, which belongs to the
+ * subscriber, so the stage works with any {@link Flow.Subscriber}.<br>
+ * A pooled stage passes its output buffers themselves instead, from a pool of at most {@code maxBuffers} buffers, each
+ * of which is in flight from the time it is passed to {@code onNext} until the subscriber hands it back with
+ * {@link #release(Buffer)}. <b>A pooled stage stalls for good once every buffer is in flight</b>: it stops reading
+ * input until one is released, so that the memory it holds never grows with the stream, and a subscriber which
+ * doesn't release the buffers receives nothing beyond the first {@code maxBuffers} of them. Only subscribers written
+ * for this class may be subscribed to a pooled stage.<br>
+ * Invalid input fails the stream with an {@link net.eewbot.base65536j.exception.IllegalBase65536TextException} and
+ * cancels the upstream subscription. Errors from upstream are passed on as they are, dropping the pending data.<br>
+ * The work is done on the threads which call the methods of the stage, one at a time. A stage serves a single
+ * subscriber and a single upstream publisher, and can't be reused. The life of the stream is reported to
+ * {@link Base65536Metrics} in {@link Base65536Metrics.Mode#STREAM} mode.
+ * @param <I> the type of the input buffers
+ * @param <O> the type of the output buffers
+ */
+public final class Base65536Processor<I extends Buffer, O extends Buffer> implements Flow.Processor<I, O> {
+    /**
+     * The number of elements of the output buffers used by default.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The number of output buffers in flight suggested for pooled stages.
+     */
+    public static final int DEFAULT_MAX_BUFFERS = 4;
+
+    /**
+     * The number of elements moved from a new input buffer into the carried-over ones at a time, which is enough to
+     * complete any code point.
+     */
+    private static final int CARRY_STEP = 4;
+
+    private final Coding<I, O> coding;
+    private final Base65536Metrics.Operation operation;
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final boolean pooled;
+
+    private final ConcurrentLinkedQueue<I> inputs = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<O> free = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Flow.Subscriber<? super O>> subscriber = new AtomicReference<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone = false;
+    private volatile Throwable upstreamError;
+    private volatile Throwable demandError;
+    private volatile boolean cancelled = false;
+
+    // The state below is only touched by the thread running drain.
+    private I current;
+    private I carry;
+    private O output;
+    private int allocated = 0;
+    private boolean requested = false;
+    private boolean finished = false;
+    private long consumed = 0;
+    private long produced = 0;
+    private I lastInput;
+    private boolean started = false;
+    private Base65536Metrics.Probe probe;
+
+    private Base65536Processor(
+        Coding<I, O> coding,
+        Base65536Metrics.Operation operation,
+        int bufferSize,
+        int maxBuffers,
+        boolean pooled
+    ) {
+        if (bufferSize < 4) throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        if (pooled && maxBuffers < 1) throw new IllegalArgumentException("Invalid number of buffers: " + maxBuffers);
+        this.coding = coding;
+        this.operation = operation;
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.pooled = pooled;
+        this.carry = coding.allocateInput(CARRY_STEP * 2);
+    }
+
+    static Base65536Processor<ByteBuffer, ByteBuffer> encoding(
+        Base65536Encoder encoder,
+        int bufferSize,
+        int maxBuffers,
+        boolean pooled
+    ) {
+        return new Base65536Processor<>(new ByteInput<ByteBuffer>() {
+            @Override
+            public CoderResult code(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+                return encoder.encode(src, dst, endOfInput);
+            }
+
+            @Override
+            public ByteBuffer allocateOutput(int capacity) {
+                return ByteBuffer.allocate(capacity);
+            }
+
+            @Override
+            public ByteBuffer copyOutput(ByteBuffer buffer) {
+                return ByteBuffer.allocate(buffer.remaining()).put(buffer).flip();
+            }
+        }, Base65536Metrics.Operation.ENCODE, bufferSize, maxBuffers, pooled);
+    }
+
+    static Base65536Processor<ByteBuffer, CharBuffer> encodingToChars(
+        Base65536Encoder encoder,
+        int bufferSize,
+        int maxBuffers,
+        boolean pooled
+    ) {
+        return new Base65536Processor<>(new ByteInput<CharBuffer>() {
+            @Override
+            public CoderResult code(ByteBuffer src, CharBuffer dst, boolean endOfInput) {
+                return encoder.encode(src, dst, endOfInput);
+            }
+
+            @Override
+            public CharBuffer allocateOutput(int capacity) {
+                return CharBuffer.allocate(capacity);
+            }
+
+            @Override
+            public CharBuffer copyOutput(CharBuffer buffer) {
+                return CharBuffer.allocate(buffer.remaining()).put(buffer).flip();
+            }
+        }, Base65536Metrics.Operation.ENCODE, bufferSize, maxBuffers, pooled);
+    }
+
+    static Base65536Processor<ByteBuffer, ByteBuffer> decoding(
+        Base65536Decoder decoder,
+        int bufferSize,
+        int maxBuffers,
+        boolean pooled
+    ) {
+        return new Base65536Processor<>(new ByteInput<ByteBuffer>() {
+            @Override
+            public CoderResult code(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+                return decoder.decode(src, dst, endOfInput);
+            }
+
+            @Override
+            public ByteBuffer allocateOutput(int capacity) {
+                return ByteBuffer.allocate(capacity);
+            }
+
+            @Override
+            public ByteBuffer copyOutput(ByteBuffer buffer) {
+                return ByteBuffer.allocate(buffer.remaining()).put(buffer).flip();
+            }
+
+            @Override
+            public int retainedLength(ByteBuffer unread) {
+                int lead = Byte.toUnsignedInt(unread.get(unread.position()));
+                return Math.min(Base65536Decoder.utf8SequenceLength(lead), unread.remaining());
+            }
+
+            @Override
+            public RuntimeException toException(CoderResult result, ByteBuffer src, long consumed, long produced) {
+                return Base65536Decoder.toException(result, src, consumed, produced);
+            }
+        }, Base65536Metrics.Operation.DECODE, bufferSize, maxBuffers, pooled);
+    }
+
+    static Base65536Processor<CharBuffer, ByteBuffer> decodingChars(
+        Base65536Decoder decoder,
+        int bufferSize,
+        int maxBuffers,
+        boolean pooled
+    ) {
+        return new Base65536Processor<>(new Coding<CharBuffer, ByteBuffer>() {
+            @Override
+            public CoderResult code(CharBuffer src, ByteBuffer dst, boolean endOfInput) {
+                return decoder.decode(src, dst, endOfInput);
+            }
+
+            @Override
+            public CharBuffer allocateInput(int capacity) {
+                return CharBuffer.allocate(capacity);
+            }
+
+            @Override
+            public ByteBuffer allocateOutput(int capacity) {
+                return ByteBuffer.allocate(capacity);
+            }
+
+            @Override
+            public ByteBuffer copyOutput(ByteBuffer buffer) {
+                return ByteBuffer.allocate(buffer.remaining()).put(buffer).flip();
+            }
+
+            @Override
+            public CharBuffer append(CharBuffer carry, CharBuffer src, int length) {
+                if (carry.remaining() < length) {
+                    carry.flip();
+                    carry = CharBuffer.allocate(Math.max(carry.capacity() * 2, carry.limit() + length)).put(carry);
+                }
+                carry.put(carry.position(), src, src.position(), length);
+                carry.position(carry.position() + length);
+                src.position(src.position() + length);
+                return carry;
+            }
+
+            @Override
+            public void compact(CharBuffer buffer) {
+                buffer.compact();
+            }
+
+            @Override
+            public int retainedLength(CharBuffer unread) {
+                int charCount = Character.isHighSurrogate(unread.get(unread.position())) ? 2 : 1;
+                return Math.min(charCount, unread.remaining());
+            }
+
+            @Override
+            public RuntimeException toException(CoderResult result, CharBuffer src, long consumed, long produced) {
+                return Base65536Decoder.toException(result, src, produced);
+            }
+        }, Base65536Metrics.Operation.DECODE, bufferSize, maxBuffers, pooled);
+    }
+
+    /**
+     * Returns an output buffer to the pool of a pooled stage once the subscriber is done with it. Each buffer passed to
+     * {@code onNext} by a pooled stage must be released exactly once, and must not be used by the subscriber
+     * afterwards, or the stage stalls once every buffer is in flight.<br>
+     * The buffers of a stage which isn't pooled belong to the subscriber, and releasing them does nothing.
+     * @param buffer the buffer received from this stage
+     */
+    public void release(O buffer) {
+        if (!pooled) return;
+        buffer.clear();
+        free.offer(buffer);
+        drain();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super O> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!this.subscriber.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("A processor serves a single subscriber"));
+            return;
+        }
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    demandError = new IllegalArgumentException("Non-positive request: " + n);
+                } else {
+                    demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                drain();
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(I item) {
+        inputs.offer(Objects.requireNonNull(item));
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = Objects.requireNonNull(throwable);
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    /**
+     * Runs the stage on the calling thread, unless another thread is already running it, in which case that thread
+     * runs it once more before returning.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) return;
+
+        int missed = 1;
+        do {
+            if (!finished) step();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void step() {
+        Flow.Subscriber<? super O> downstream = subscriber.get();
+        Flow.Subscription up = upstream;
+
+        if (cancelled) {
+            finish(up);
+            if (probe != null) probe.end(consumed, produced);
+            return;
+        }
+        if (downstream == null || up == null) return;
+        if (!started) {
+            started = true;
+            probe = Base65536Metrics.startStream(operation, Base65536Metrics.Mode.STREAM);
+        }
+
+        if (demandError != null) {
+            fail(downstream, up, demandError);
+            return;
+        }
+        if (upstreamError != null) {
+            fail(downstream, up, upstreamError);
+            return;
+        }
+
+        while (true) {
+            if (current == null) {
+                current = inputs.poll();
+                if (current != null) requested = false;
+            }
+            boolean endOfInput = current == null && upstreamDone && inputs.isEmpty();
+
+            if (current == null && !endOfInput) {
+                if (output != null && output.position() > 0) {
+                    if (demand.get() == 0) return;
+                    emit(downstream);
+                }
+                if (!requested && demand.get() > 0) {
+                    requested = true;
+                    up.request(1);
+                }
+                return;
+            }
+
+            if (output == null) {
+                output = borrow();
+                if (output == null) return;
+            }
+
+            CoderResult result = endOfInput ? flush() : code(current);
+            if (result.isError()) {
+                fail(downstream, up, coding.toException(result, lastInput, consumed, produced));
+                return;
+            }
+
+            if (result.isOverflow()) {
+                if (demand.get() == 0) return;
+                emit(downstream);
+                continue;
+            }
+
+            if (endOfInput) {
+                if (output.position() > 0) {
+                    if (demand.get() == 0) return;
+                    emit(downstream);
+                }
+                finish(null);
+                if (probe != null) probe.end(consumed, produced);
+                downstream.onComplete();
+                return;
+            }
+            current = null;
+        }
+    }
+
+    /**
+     * Codes the given input buffer, first completing the data carried over from the previous ones. Unless the output
+     * buffer overflows, the input buffer is read to its end, and an incomplete code point at its end is carried over.
+     */
+    private CoderResult code(I src) {
+        while (carry.position() > 0) {
+            int appended = Math.min(src.remaining(), CARRY_STEP);
+            carry = coding.append(carry, src, appended);
+            carry.flip();
+            CoderResult result = count(carry, false);
+            if (result.isError()) return result;
+
+            // The unread end of the carried data came from src, so it is put back there to be read in place.
+            int left = carry.remaining();
+            if (left <= appended) {
+                src.position(src.position() - left);
+                carry.clear();
+            } else {
+                carry.limit(carry.position() + retain(carry));
+                coding.compact(carry);
+            }
+
+            if (result.isOverflow()) return result;
+            if (!src.hasRemaining()) return result;
+        }
+
+        CoderResult result = count(src, false);
+        if (result.isUnderflow() && src.hasRemaining()) {
+            carry = coding.append(carry, src, retain(src));
+            src.position(src.limit());
+        }
+        return result;
+    }
+
+    /**
+     * Returns how many of the elements the coding left unread it needs to see again, counting the rest as consumed. A
+     * lenient decoder leaves the whitespace after the padding code point unread with it, but would skip it anyway.
+     */
+    private int retain(I unread) {
+        int retained = coding.retainedLength(unread);
+        consumed += unread.remaining() - retained;
+        return retained;
+    }
+
+    /**
+     * Codes the data carried over at the end of the input.
+     */
+    private CoderResult flush() {
+        carry.flip();
+        CoderResult result = count(carry, true);
+        if (result.isError()) return result;
+        coding.compact(carry);
+        return result;
+    }
+
+    private CoderResult count(I src, boolean endOfInput) {
+        int srcPosition = src.position();
+        int dstPosition = output.position();
+        CoderResult result = coding.code(src, output, endOfInput);
+        lastInput = src;
+        consumed += src.position() - srcPosition;
+        produced += output.position() - dstPosition;
+        return result;
+    }
+
+    private O borrow() {
+        if (!pooled) return coding.allocateOutput(bufferSize);
+
+        O buffer = free.poll();
+        if (buffer != null) return buffer;
+        if (allocated == maxBuffers) return null;
+
+        allocated++;
+        return coding.allocateOutput(bufferSize);
+    }
+
+    private void emit(Flow.Subscriber<? super O> downstream) {
+        O buffer = output;
+        buffer.flip();
+        if (pooled) {
+            output = null;
+        } else {
+            buffer = coding.copyOutput(buffer);
+            output.clear();
+        }
+        demand.getAndUpdate(d -> d == Long.MAX_VALUE ? d : d - 1);
+        downstream.onNext(buffer);
+    }
+
+    private void fail(Flow.Subscriber<? super O> downstream, Flow.Subscription up, Throwable failure) {
+        finish(up);
+        if (probe != null) probe.fail(consumed, failure);
+        downstream.onError(failure);
+    }
+
+    /**
+     * Ends the stage, cancelling the given upstream subscription if not null, and drops the pending data.
+     */
+    private void finish(Flow.Subscription up) {
+        finished = true;
+        if (up != null) up.cancel();
+        inputs.clear();
+        current = null;
+        output = null;
+    }
+
+    /**
+     * The coding done by a stage, and the handling of its input and output buffers.
+     */
+    private interface Coding<I extends Buffer, O extends Buffer> {
+        CoderResult code(I src, O dst, boolean endOfInput);
+
+        I allocateInput(int capacity);
+
+        O allocateOutput(int capacity);
+
+        /**
+         * Returns a new buffer holding the remaining elements of the given one, ready to be read.
+         */
+        O copyOutput(O buffer);
+
+        /**
+         * Moves length elements from src into the carry buffer, which is in write mode, growing it if needed.
+         * @return The carry buffer, which is a new one if it has grown.
+         */
+        I append(I carry, I src, int length);
+
+        /**
+         * Compacts the buffer, which {@link Buffer} doesn't declare.
+         */
+        void compact(I buffer);
+
+        /**
+         * Returns how many of the elements the coding left unread at the position of the non-empty buffer it has to see
+         * again with the following input.
+         */
+        default int retainedLength(I unread) {
+            return unread.remaining();
+        }
+
+        /**
+         * Converts an error result at the position of src into the exception passed to the subscriber.
+         * @param consumed the number of elements read before the error
+         * @param produced the number of elements written before the error
+         */
+        default RuntimeException toException(CoderResult result, I src, long consumed, long produced) {
+            return new IllegalStateException(result.toString());
+        }
+    }
+
+    private abstract static class ByteInput<O extends Buffer> implements Coding<ByteBuffer, O> {
+        @Override
+        public ByteBuffer allocateInput(int capacity) {
+            return ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public ByteBuffer append(ByteBuffer carry, ByteBuffer src, int length) {
+            if (carry.remaining() < length) {
+                carry.flip();
+                carry = ByteBuffer.allocate(Math.max(carry.capacity() * 2, carry.limit() + length)).put(carry);
+            }
+            carry.put(carry.position(), src, src.position(), length);
+            carry.position(carry.position() + length);
+            src.position(src.position() + length);
+            return carry;
+        }
+
+        @Override
+        public void compact(ByteBuffer buffer) {
+            buffer.compact();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package net.eewbot.base65536j;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class implements a scanner which finds Base65536 encoded runs embedded in mixed text, such as chat messages or
+ * log lines, and decodes them in a single pass.<br>
+ * A run is a maximal sequence of consecutive Base65536 code points. It ends after a padding code point, which can only
+ * be the last one of an encoded text, or before any code point which is not in the Base65536 alphabet. Each run is
+ * decoded while it is scanned and passed to a {@link Sink} with its offsets, so the text is read only once and no
+ * string is cut out of it.<br>
+ * Many Base65536 code points are CJK ideographs, so ordinary Chinese or Japanese text is also found as runs. Scanners
+ * created by {@link #withMinimumLength(int)} skip runs shorter than the given number of code points.<br>
+ * Instances of {@link Base65536Scanner} class are safe for use by multiple concurrent threads.<br>
+ * Unless otherwise noted, passing a null argument to a method of this class will cause a {@link NullPointerException}
+ * to be thrown.
+ */
+public final class Base65536Scanner {
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    private final int minimumLength;
+
+    Base65536Scanner(int minimumLength) {
+        this.minimumLength = minimumLength;
+    }
+
+    /**
+     * Receives the runs found by a {@link Base65536Scanner}.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * Called for each run in the order they appear in the text.
+         * @param start the index of the first char or byte of the run
+         * @param end the index after the last char or byte of the run
+         * @param decoded the array holding the decoded bytes, which is reused for the next run, so it must not be kept
+         * @param length the number of decoded bytes from the beginning of the array
+         */
+        void onRun(int start, int end, byte[] decoded, int length);
+    }
+
+    /**
+     * Returns a scanner which skips runs shorter than the given number of code points.
+     * @param minimumLength the minimum number of code points of a run
+     * @return A scanner reporting runs of at least the given length.
+     * @throws IllegalArgumentException if the length is less than 1.
+     */
+    public Base65536Scanner withMinimumLength(int minimumLength) {
+        if (minimumLength < 1) throw new IllegalArgumentException("Invalid minimum length: " + minimumLength);
+        return minimumLength == this.minimumLength ? this : new Base65536Scanner(minimumLength);
+    }
+
+    /**
+     * Returns the minimum number of code points of the runs this scanner reports.
+     * @return The minimum length of a run.
+     */
+    public int getMinimumLength() {
+        return minimumLength;
+    }
+
+    /**
+     * Scans all chars of the CharSequence. Offsets passed to the sink are char indices.
+     * @param src the text to scan
+     * @param sink the sink receiving the runs
+     * @return The number of runs passed to the sink.
+     */
+    public int scan(CharSequence src, Sink sink) {
+        return scan(src, 0, src.length(), sink);
+    }
+
+    /**
+     * Scans chars from the CharSequence in the given range. Offsets passed to the sink are char indices in the whole
+     * CharSequence.
+     * @param src the text to scan
+     * @param start the index of the first char to scan
+     * @param end the index after the last char to scan
+     * @param sink the sink receiving the runs
+     * @return The number of runs passed to the sink.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    public int scan(CharSequence src, int start, int end, Sink sink) {
+        Objects.checkFromToIndex(start, end, src.length());
+        Objects.requireNonNull(sink);
+
+        byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+        int runs = 0;
+        int runStart = start;
+        int length = 0;
+        int codePoints = 0;
+        int i = start;
+        while (i < end) {
+            char c = src.charAt(i);
+            int codePoint = c;
+            int charCount = 1;
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(src.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, src.charAt(i + 1));
+                charCount = 2;
+            }
+
+            int b = Base65536Decoder.leastByteOf(codePoint);
+            if (b == Base65536Decoder.INVALID) {
+                if (report(sink, runStart, i, buffer, length, codePoints)) runs++;
+                i += charCount;
+                runStart = i;
+                length = 0;
+                codePoints = 0;
+                continue;
+            }
+
+            if (length + 2 > buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            length = put(buffer, length, codePoint, b);
+            codePoints++;
+            i += charCount;
+            if (b == Base65536Decoder.PADDING) {
+                if (report(sink, runStart, i, buffer, length, codePoints)) runs++;
+                runStart = i;
+                length = 0;
+                codePoints = 0;
+            }
+        }
+        if (report(sink, runStart, end, buffer, length, codePoints)) runs++;
+        return runs;
+    }
+
+    /**
+     * Scans all bytes of the UTF-8 encoded text. Offsets passed to the sink are byte offsets. Malformed sequences are
+     * treated as text outside runs.
+     * @param src the UTF-8 encoded text to scan
+     * @param sink the sink receiving the runs
+     * @return The number of runs passed to the sink.
+     */
+    public int scan(byte[] src, Sink sink) {
+        return scan(src, 0, src.length, sink);
+    }
+
+    /**
+     * Scans bytes of the UTF-8 encoded text in the given range. Offsets passed to the sink are byte offsets in the
+     * whole array. Malformed sequences are treated as text outside runs.
+     * @param src the UTF-8 encoded text to scan
+     * @param off the offset of the first byte to scan
+     * @param len the number of bytes to scan
+     * @param sink the sink receiving the runs
+     * @return The number of runs passed to the sink.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    public int scan(byte[] src, int off, int len, Sink sink) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        Objects.requireNonNull(sink);
+
+        int end = off + len;
+        byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+        int runs = 0;
+        int runStart = off;
+        int length = 0;
+        int codePoints = 0;
+        int i = off;
+        while (i < end) {
+            int codePoint = Base65536Decoder.utf8CodePointAt(src, i, end);
+            int b = codePoint < 0 ? Base65536Decoder.INVALID : Base65536Decoder.leastByteOf(codePoint);
+            if (b == Base65536Decoder.INVALID) {
+                if (report(sink, runStart, i, buffer, length, codePoints)) runs++;
+                // Continuation bytes never begin a Base65536 code point, so stepping one byte at a time is enough
+                // to get past any other character.
+                i++;
+                runStart = i;
+                length = 0;
+                codePoints = 0;
+                continue;
+            }
+
+            if (length + 2 > buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            length = put(buffer, length, codePoint, b);
+            codePoints++;
+            i += Base65536Decoder.utf8SequenceLength(Byte.toUnsignedInt(src[i]));
+            if (b == Base65536Decoder.PADDING) {
+                if (report(sink, runStart, i, buffer, length, codePoints)) runs++;
+                runStart = i;
+                length = 0;
+                codePoints = 0;
+            }
+        }
+        if (report(sink, runStart, end, buffer, length, codePoints)) runs++;
+        return runs;
+    }
+
+    /**
+     * Decodes a code point whose block looked up the given least byte into the buffer, and returns the new length.
+     */
+    private static int put(byte[] buffer, int length, int codePoint, int b) {
+        if (b == Base65536Decoder.PADDING) {
+            buffer[length] = (byte) codePoint;
+            return length + 1;
+        }
+        buffer[length] = (byte) codePoint;
+        buffer[length + 1] = (byte) b;
+        return length + 2;
+    }
+
+    private boolean report(Sink sink, int start, int end, byte[] buffer, int length, int codePoints) {
+        if (codePoints == 0 || codePoints < minimumLength) return false;
+        sink.onRun(start, end, buffer, length);
+        return true;
+    }
+}
@@ -0,0 +1,151 @@
+package net.eewbot.base65536j;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * A sampled index of the positions of code points in Base65536 encoded text, built by
+ * {@link Base65536Decoder#index(CharSequence)} or {@link Base65536Decoder#index(java.nio.file.Path)}, which lets
+ * {@code decodeRange} decode any range of the decoded bytes without decoding the text before it.<br>
+ * Every code point decodes into two bytes, so byte N of the decoded data comes from code point N / 2. But a code point
+ * takes one or two chars in UTF-16 and three or four bytes in UTF-8, so its position in the text can't be calculated.
+ * The index records the position of every {@link #getInterval() interval}-th code point; a range is decoded by
+ * seeking to the checkpoint before it and skipping fewer than interval code points from there.<br>
+ * An index is small, 8 bytes per checkpoint, and serializable, so it can be stored beside the text it was built from.
+ * It is only valid for that text, which must not be modified, and for decoders of the same
+ * {@link Base65536Decoder#isLenient() leniency}.
+ */
+public final class Base65536SeekIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of code points between checkpoints used by default.
+     */
+    public static final int DEFAULT_INTERVAL = 4096;
+
+    private final int interval;
+    private final long[] checkpoints;
+    private final long codePointCount;
+    private final long decodedLength;
+    private final long sourceLength;
+    private final boolean utf8;
+    private final boolean lenient;
+
+    Base65536SeekIndex(
+        int interval,
+        long[] checkpoints,
+        long codePointCount,
+        long decodedLength,
+        long sourceLength,
+        boolean utf8,
+        boolean lenient
+    ) {
+        this.interval = interval;
+        this.checkpoints = checkpoints;
+        this.codePointCount = codePointCount;
+        this.decodedLength = decodedLength;
+        this.sourceLength = sourceLength;
+        this.utf8 = utf8;
+        this.lenient = lenient;
+    }
+
+    /**
+     * Returns the number of checkpoints needed for the given number of code points, one at every interval-th code
+     * point starting from the first.
+     */
+    static int checkpointCount(long codePointCount, int interval) {
+        long count = (codePointCount + interval - 1) / interval;
+        if (count > Integer.MAX_VALUE - 8) throw new OutOfMemoryError("Too many checkpoints: " + count);
+        return (int) count;
+    }
+
+    /**
+     * Returns the number of code points between checkpoints.
+     * @return The interval of the checkpoints.
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Returns the number of code points of the text, not counting skipped whitespace.
+     * @return The number of code points.
+     */
+    public long getCodePointCount() {
+        return codePointCount;
+    }
+
+    /**
+     * Returns the number of bytes the whole text decodes into.
+     * @return The decoded length in bytes.
+     */
+    public long getDecodedLength() {
+        return decodedLength;
+    }
+
+    /**
+     * Returns the length of the text the index was built from, in chars for a CharSequence and in bytes for a file.
+     * @return The length of the text.
+     */
+    public long getSourceLength() {
+        return sourceLength;
+    }
+
+    /**
+     * Tells whether the index was built from a UTF-8 file, rather than from a CharSequence.
+     * @return true if the positions are byte offsets of UTF-8 text.
+     */
+    public boolean isUtf8() {
+        return utf8;
+    }
+
+    /**
+     * Tells whether the index was built by a {@link Base65536Decoder#lenient() lenient} decoder.
+     * @return true if whitespace and line breaks were skipped.
+     */
+    public boolean isLenient() {
+        return lenient;
+    }
+
+    /**
+     * Returns the position in the text of the code point at the given checkpoint, which is code point
+     * {@code checkpoint * interval}.
+     */
+    long checkpoint(int checkpoint) {
+        return checkpoints[checkpoint];
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (
+            interval <= 0
+                || codePointCount < 0
+                || codePointCount > sourceLength
+                || checkpoints == null
+                || checkpoints.length != checkpointCount(codePointCount, interval)
+                || decodedLength < 0
+                || decodedLength != codePointCount * 2 && decodedLength != codePointCount * 2 - 1
+                || !checkpointsFit()
+        ) {
+            throw new InvalidObjectException("Inconsistent seek index");
+        }
+    }
+
+    /**
+     * Tells whether the checkpoints are positions of the code points they stand for in a text of the source length:
+     * every code point takes at least one char or byte, so checkpoints are at least interval apart, and the code points
+     * from the last one on end within the text.
+     */
+    private boolean checkpointsFit() {
+        if (checkpoints.length == 0) return true;
+        if (checkpoints[0] < 0) return false;
+
+        for (int k = 1; k < checkpoints.length; k++) {
+            if (checkpoints[k] - checkpoints[k - 1] < interval) return false;
+        }
+        long last = checkpoints.length - 1;
+        return checkpoints[(int) last] + (codePointCount - last * interval) <= sourceLength;
+    }
+}
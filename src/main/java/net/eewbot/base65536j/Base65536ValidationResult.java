@@ -0,0 +1,70 @@
+package net.eewbot.base65536j;
+
+/**
+ * The result of validating Base65536 encoded text with {@link Base65536Decoder#validate(CharSequence)} or
+ * {@link Base65536Decoder#validate(byte[])}.<br>
+ * A valid result is a shared instance; an invalid one tells the kind and the position of the first error.
+ */
+public final class Base65536ValidationResult {
+    /**
+     * The kinds of errors which make text undecodable.
+     */
+    public enum Error {
+        /**
+         * A code point out of the Base65536 code blocks, including lone surrogates.
+         */
+        UNKNOWN_CODE_POINT,
+        /**
+         * Any code point following the padding code point, which may only be the last one.
+         */
+        DATA_AFTER_PADDING,
+        /**
+         * A byte sequence which is not a three or four bytes UTF-8 sequence, or one cut off by the end of the input.
+         */
+        MALFORMED_UTF8
+    }
+
+    static final Base65536ValidationResult VALID = new Base65536ValidationResult(null, -1);
+
+    private final Error error;
+    private final int position;
+
+    private Base65536ValidationResult(Error error, int position) {
+        this.error = error;
+        this.position = position;
+    }
+
+    static Base65536ValidationResult invalid(Error error, int position) {
+        return new Base65536ValidationResult(error, position);
+    }
+
+    /**
+     * Returns whether the text is valid.
+     * @return true if the text can be decoded.
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * Returns the kind of the first error.
+     * @return The kind of the first error, or null if the text is valid.
+     */
+    public Error getError() {
+        return error;
+    }
+
+    /**
+     * Returns the position of the first error, which is a char index for a CharSequence and a byte offset for UTF-8
+     * input. For {@link Error#DATA_AFTER_PADDING} it is the position of the data following the padding code point.
+     * @return The position of the first error, or -1 if the text is valid.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "VALID" : error + " at " + position;
+    }
+}
@@ -0,0 +1,55 @@
+package net.eewbot.base65536j;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of objects which are expensive to create or hold native resources, such as
+ * {@link java.util.zip.Deflater} and {@link java.util.zip.Inflater}. Borrowing never blocks: a new object is created
+ * when the pool is empty, and released objects beyond the capacity are disposed of.
+ */
+final class CoderPool<T> {
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int capacity;
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Consumer<T> dispose;
+
+    /**
+     * @param capacity the maximum number of idle objects kept
+     * @param factory creates a new object
+     * @param reset makes a released object ready to be borrowed again
+     * @param dispose frees the resources of an object which is not kept
+     */
+    CoderPool(int capacity, Supplier<T> factory, Consumer<T> reset, Consumer<T> dispose) {
+        this.capacity = capacity;
+        this.factory = factory;
+        this.reset = reset;
+        this.dispose = dispose;
+    }
+
+    T borrow() {
+        T object = idle.poll();
+        if (object == null) return factory.get();
+
+        idleCount.decrementAndGet();
+        return object;
+    }
+
+    /**
+     * Returns a borrowed object to the pool. The object must not be used by the caller afterwards.
+     */
+    void release(T object) {
+        if (idleCount.incrementAndGet() > capacity) {
+            idleCount.decrementAndGet();
+            dispose.accept(object);
+            return;
+        }
+
+        reset.accept(object);
+        idle.offer(object);
+    }
+}
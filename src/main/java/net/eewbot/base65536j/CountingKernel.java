@@ -0,0 +1,53 @@
+package net.eewbot.base65536j;
+
+/**
+ * The counting loops which size the output before encoding or decoding. They read every byte of the input, so they
+ * cost about as much as the encoding and decoding loops themselves.<br>
+ * This scalar implementation is always available, and is the one used by default. A vectorized implementation is only
+ * used when the application resolves the incubating {@code jdk.incubator.vector} module, which isn't resolved unless
+ * the JVM is started with {@code --add-modules jdk.incubator.vector}, and the {@value #VECTOR_PROPERTY} system property
+ * isn't set to false.
+ */
+class CountingKernel {
+    static final String VECTOR_PROPERTY = "net.eewbot.base65536j.vector";
+
+    static final CountingKernel INSTANCE = load();
+
+    private static CountingKernel load() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) return new CountingKernel();
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return new CountingKernel();
+
+        try {
+            return (CountingKernel) Class.forName("net.eewbot.base65536j.VectorCountingKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new CountingKernel();
+        }
+    }
+
+    /**
+     * Counts the bytes at odd offsets from off in the given range whose unsigned value is at least the threshold,
+     * which are the least significant bytes of the pairs mapped to the given index of the code blocks or above.
+     */
+    int countPairsAtLeast(byte[] src, int off, int len, int threshold) {
+        int count = 0;
+        int end = off + len;
+        for (int i = off + 1; i < end; i += 2) {
+            count += (threshold - 1 - Byte.toUnsignedInt(src[i])) >>> 31;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the bytes in the given range which are not UTF-8 continuation bytes, which is the number of code points in
+     * well-formed UTF-8.
+     */
+    int countNonContinuationBytes(byte[] src, int off, int end) {
+        int count = 0;
+        for (int i = off; i < end; i++) {
+            if ((src[i] & 0xC0) != 0x80) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,94 @@
+package net.eewbot.base65536j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Helpers for streaming through files in memory-mapped windows, so that files larger than an array can be encoded and
+ * decoded with constant heap use.
+ */
+final class MappedFileSupport {
+    private MappedFileSupport() {}
+
+    /**
+     * The size of a mapped window. It is even and a multiple of {@link #CHUNK_SIZE}, so reading whole chunks never
+     * splits a pair of bytes between windows.
+     */
+    static final long WINDOW_SIZE = 1L << 26;
+
+    /**
+     * The size of the heap arrays which data is staged in between the mapped windows and the encoding loops.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Reads a file from the beginning through read-only mapped windows.
+     */
+    static class Reader {
+        private final FileChannel channel;
+        private final long size;
+        private long position = 0;
+        private MappedByteBuffer window;
+
+        Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /**
+         * Reads up to len bytes, never across the end of the current window.
+         * @return The number of bytes read, or -1 if the end of the file has been reached.
+         */
+        int read(byte[] b, int off, int len) throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (position == size) return -1;
+
+                long windowSize = Math.min(WINDOW_SIZE, size - position);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                position += windowSize;
+            }
+
+            int n = Math.min(len, window.remaining());
+            window.get(b, off, n);
+            return n;
+        }
+
+        boolean hasRemaining() {
+            return position < size || window != null && window.hasRemaining();
+        }
+    }
+
+    /**
+     * Writes a file of a known size from the beginning through read-write mapped windows.
+     * The file grows to the given size as the windows are mapped.
+     */
+    static class Writer {
+        private final FileChannel channel;
+        private final long size;
+        private long position = 0;
+        private MappedByteBuffer window;
+
+        Writer(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (window == null || !window.hasRemaining()) {
+                    if (position == size) throw new IOException("Writing beyond the calculated size: " + size);
+
+                    long windowSize = Math.min(WINDOW_SIZE, size - position);
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, position, windowSize);
+                    position += windowSize;
+                }
+
+                int n = Math.min(len, window.remaining());
+                window.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+}
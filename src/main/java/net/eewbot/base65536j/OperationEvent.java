@@ -0,0 +1,40 @@
+package net.eewbot.base65536j;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JDK Flight Recorder event of an operation reported by {@link Base65536Metrics}. Its duration is the one of the
+ * operation.
+ */
+@Name("net.eewbot.base65536j.Operation")
+@Label("Base65536 Operation")
+@Category("Base65536")
+@Description("Encoding or decoding of a payload at or above the reporting threshold")
+class OperationEvent extends Event {
+    @Label("Operation")
+    @Description("ENCODE or DECODE")
+    String operation;
+
+    @Label("Mode")
+    @Description("The kind of entry point: ARRAY, STRING, BUFFER, STREAM, FILE, PARALLEL or BATCH")
+    String mode;
+
+    @Label("Input Size")
+    @Description("Bytes or chars read")
+    @DataAmount
+    long inputSize;
+
+    @Label("Output Size")
+    @Description("Bytes or chars written")
+    @DataAmount
+    long outputSize;
+
+    @Label("Failure")
+    @Description("The simple name of the exception the operation failed with")
+    String failure;
+}
@@ -0,0 +1,91 @@
+package net.eewbot.base65536j;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Helpers for splitting encoding and decoding work into chunks processed on a {@link ForkJoinPool}.
+ */
+final class ParallelSupport {
+    private ParallelSupport() {}
+
+    /**
+     * Inputs shorter than this are encoded or decoded sequentially, since forking costs more than it saves.
+     */
+    static final int THRESHOLD = 1 << 20;
+
+    /**
+     * The minimum number of input bytes or chars per chunk.
+     */
+    private static final int MIN_CHUNK_LENGTH = 1 << 16;
+
+    /**
+     * Returns the even number of input bytes or chars per chunk for an input of the given length. The input is split
+     * into a few chunks per worker of the pool, so that uneven chunks are balanced by work stealing.
+     */
+    static int chunkLength(int length, ForkJoinPool pool) {
+        int count = Math.max(1, Math.min(pool.getParallelism() * 4, length / MIN_CHUNK_LENGTH));
+        return ((length - 1) / count + 2) & ~1;
+    }
+
+    static int chunkCount(int length, int chunkLength) {
+        return (length - 1) / chunkLength + 1;
+    }
+
+    /**
+     * The minimum number of messages of a batch per chunk.
+     */
+    private static final int MIN_BATCH_CHUNK_LENGTH = 64;
+
+    /**
+     * Runs the action for every message index of a batch from 0 to count, on the calling thread if pool is null, or
+     * otherwise on the pool in chunks of consecutive messages, a few chunks per worker.
+     */
+    static void forEachMessage(ForkJoinPool pool, int count, IntConsumer action) {
+        if (pool == null || count <= MIN_BATCH_CHUNK_LENGTH) {
+            for (int i = 0; i < count; i++) action.accept(i);
+            return;
+        }
+
+        int chunks = Math.min(pool.getParallelism() * 4, count / MIN_BATCH_CHUNK_LENGTH);
+        int chunkLength = (count - 1) / chunks + 1;
+        invokeAll(pool, chunkCount(count, chunkLength), k -> {
+            int end = Math.min(count, (k + 1) * chunkLength);
+            for (int i = k * chunkLength; i < end; i++) action.accept(i);
+        });
+    }
+
+    /**
+     * Runs the action for every chunk index from 0 to count on the pool, returning once all of them are done.
+     * An exception thrown by any of the actions is rethrown.
+     */
+    static void invokeAll(ForkJoinPool pool, int count, IntConsumer action) {
+        pool.invoke(new ChunkAction(action, 0, count));
+    }
+
+    private static class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer action;
+        private final int from;
+        private final int to;
+
+        ChunkAction(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkAction(action, from, middle), new ChunkAction(action, middle, to));
+        }
+    }
+}
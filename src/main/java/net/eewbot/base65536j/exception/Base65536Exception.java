@@ -7,4 +7,19 @@ public abstract class Base65536Exception extends RuntimeException {
     public Base65536Exception(String message) {
         super(message);
     }
+
+    public Base65536Exception(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Constructs an exception which captures a stack trace only if writableStackTrace is true. Without one, the
+     * exception is cheap to construct, which matters when it is thrown for every piece of invalid untrusted input.
+     * @param message the detail message
+     * @param cause the cause, or null
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public Base65536Exception(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 }
@@ -5,9 +5,18 @@ package net.eewbot.base65536j.exception;
  */
 public class IllegalBase65536TextException extends Base65536Exception {
     public IllegalBase65536TextException(int at, int codePoint) {
-        super("Unknown code point at " + at + ": " + codePoint);
+        this((long) at, codePoint);
+    }
+    public IllegalBase65536TextException(long at, int codePoint) {
+        this(at, codePoint, true);
+    }
+    public IllegalBase65536TextException(long at, int codePoint, boolean writableStackTrace) {
+        this("Unknown code point at " + at + ": " + codePoint, writableStackTrace);
     }
     public IllegalBase65536TextException(String message) {
-        super(message);
+        this(message, true);
+    }
+    public IllegalBase65536TextException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace);
     }
 }
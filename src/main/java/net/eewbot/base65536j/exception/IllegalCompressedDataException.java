@@ -0,0 +1,16 @@
+package net.eewbot.base65536j.exception;
+
+/**
+ * The error that couldn't decompress input because its header is unknown or its compressed data is corrupted.
+ */
+public class IllegalCompressedDataException extends Base65536Exception {
+    public IllegalCompressedDataException(String message) {
+        super(message);
+    }
+    public IllegalCompressedDataException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    public IllegalCompressedDataException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, writableStackTrace);
+    }
+}
@@ -0,0 +1,31 @@
+package net.eewbot.base65536j;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the heap allocation of the current thread, where the JVM supports it.
+ */
+final class AllocationCounter {
+    private static final int WARMUP = 20_000;
+    private static final int ROUNDS = 10_000;
+
+    private AllocationCounter() {}
+
+    /**
+     * Runs the action until it is compiled and then measures it a number of times.
+     * @return The average number of bytes allocated by one run, or 0 if the JVM can't measure it.
+     */
+    static long measure(Runnable action) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return 0;
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) return 0;
+
+        for (int i = 0; i < WARMUP; i++) action.run();
+
+        long threadId = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) action.run();
+        long after = bean.getThreadAllocatedBytes(threadId);
+        return (after - before) / ROUNDS;
+    }
+}
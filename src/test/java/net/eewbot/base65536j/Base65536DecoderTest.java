@@ -1,25 +1,222 @@
 package net.eewbot.base65536j;
 
 import net.eewbot.base65536j.exception.Base65536Exception;
+import net.eewbot.base65536j.exception.BufferTooSmallException;
+import net.eewbot.base65536j.exception.IllegalBase65536TextException;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 class Base65536DecoderTest {
+    private static final Base65536Decoder.Context CONTEXT = Base65536.getDecoder().newContext();
+
     @ParameterizedTest
     @MethodSource("failCaseProvider")
     void fail(String testCase) {
         Assertions.assertThrows(Base65536Exception.class, () -> Base65536.getDecoder().decode(testCase));
     }
 
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failCharArray(String testCase) {
+        char[] chars = testCase.toCharArray();
+        Assertions.assertThrows(Base65536Exception.class, () -> Base65536.getDecoder().decode(chars, 0, chars.length));
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failUtf8(String testCase) {
+        byte[] bytes = testCase.getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThrows(Base65536Exception.class, () -> Base65536.getDecoder().decode(bytes));
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failStream(String testCase) {
+        byte[] bytes = testCase.getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThrows(Base65536Exception.class, () -> {
+            try (InputStream is = Base65536.getDecoder().wrap(new ByteArrayInputStream(bytes))) {
+                is.readAllBytes();
+            }
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failIncremental(String testCase) {
+        ByteBuffer src = ByteBuffer.wrap(testCase.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer dst = ByteBuffer.allocate(src.capacity() * 2);
+        Assertions.assertTrue(Base65536.getDecoder().decode(src, dst, true).isError());
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failFile(String testCase) throws IOException {
+        Path in = Files.createTempFile("base65536j", ".txt");
+        Path out = Files.createTempFile("base65536j", ".bin");
+        try {
+            Files.write(in, testCase.getBytes(StandardCharsets.UTF_8));
+            Assertions.assertThrows(Base65536Exception.class, () -> Base65536.getDecoder().decode(in, out));
+            // Shorter than the length calculated for the whole text, at least two bytes per code point but one.
+            Assertions.assertTrue(Files.size(out) < testCase.codePointCount(0, testCase.length()) * 2L - 1);
+        } finally {
+            Files.delete(in);
+            Files.delete(out);
+        }
+    }
+
+    @Test
+    void failFileTruncated() throws IOException {
+        byte[] data = new byte[400_000];
+        new Random(400_000).nextBytes(data);
+        StringBuilder text = new StringBuilder(Base65536.getEncoder().encodeToString(data));
+        text.insert(text.offsetByCodePoints(0, 150_000), '\u00E9');
+
+        Path in = Files.createTempFile("base65536j", ".txt");
+        Path out = Files.createTempFile("base65536j", ".bin");
+        try {
+            Files.write(in, text.toString().getBytes(StandardCharsets.UTF_8));
+            IllegalBase65536TextException e = Assertions.assertThrows(
+                IllegalBase65536TextException.class,
+                () -> Base65536.getDecoder().decode(in, out)
+            );
+
+            Assertions.assertEquals("Unknown code point at 150001: 233", e.getMessage());
+            Assertions.assertArrayEquals(Arrays.copyOf(data, 300_000), Files.readAllBytes(out));
+        } finally {
+            Files.delete(in);
+            Files.delete(out);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void invalid(String testCase) {
+        byte[] bytes = testCase.getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertFalse(Base65536.getDecoder().isValid(testCase));
+        Assertions.assertFalse(Base65536.getDecoder().isValid(bytes));
+        Assertions.assertFalse(Base65536.getDecoder().validate(testCase).isValid());
+        Assertions.assertFalse(Base65536.getDecoder().validate(bytes).isValid());
+    }
+
+    @Test
+    void validationError() {
+        Base65536Decoder decoder = Base65536.getDecoder();
+
+        Base65536ValidationResult unknown = decoder.validate("\u3400abc");
+        Assertions.assertEquals(Base65536ValidationResult.Error.UNKNOWN_CODE_POINT, unknown.getError());
+        Assertions.assertEquals(1, unknown.getPosition());
+
+        Base65536ValidationResult afterPadding = decoder.validate("\u3400\u1525\u1513".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(Base65536ValidationResult.Error.DATA_AFTER_PADDING, afterPadding.getError());
+        Assertions.assertEquals(6, afterPadding.getPosition());
+
+        Base65536ValidationResult malformed = decoder.validate("\u3400abc".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(Base65536ValidationResult.Error.MALFORMED_UTF8, malformed.getError());
+        Assertions.assertEquals(3, malformed.getPosition());
+
+        byte[] overlong = {(byte) 0xF0, (byte) 0x83, (byte) 0x90, (byte) 0x80};
+        Assertions.assertEquals(Base65536ValidationResult.Error.MALFORMED_UTF8, decoder.validate(overlong).getError());
+        Assertions.assertThrows(IllegalBase65536TextException.class, () -> decoder.decode(overlong));
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failTryDecode(String testCase) {
+        Base65536Decoder decoder = Base65536.getDecoder();
+        byte[] bytes = testCase.getBytes(StandardCharsets.UTF_8);
+
+        Base65536DecodeResult result = decoder.tryDecode(testCase);
+        Assertions.assertFalse(result.isSuccess());
+        Assertions.assertNull(result.getBytes());
+        Assertions.assertEquals(decoder.validate(testCase).getError(), result.getError());
+        Assertions.assertEquals(decoder.validate(testCase).getPosition(), result.getPosition());
+
+        Base65536DecodeResult utf8 = decoder.tryDecode(bytes);
+        Assertions.assertFalse(utf8.isSuccess());
+        Assertions.assertEquals(decoder.validate(bytes).getError(), utf8.getError());
+        Assertions.assertEquals(decoder.validate(bytes).getPosition(), utf8.getPosition());
+    }
+
+    @Test
+    void tryDecodeRange() {
+        byte[] frame = ("abc" + "\u3400\u1525" + "de").getBytes(StandardCharsets.UTF_8);
+        Base65536DecodeResult result = Base65536.getDecoder().tryDecode(frame, 3, 6);
+
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertArrayEquals(new byte[]{0, 0, 0x25}, result.getBytes());
+        Assertions.assertEquals(-1, result.getPosition());
+
+        Base65536DecodeResult invalid = Base65536.getDecoder().tryDecode(frame, 3, 8);
+        Assertions.assertEquals(Base65536ValidationResult.Error.DATA_AFTER_PADDING, invalid.getError());
+        Assertions.assertEquals(6, invalid.getPosition());
+    }
+
+    @Test
+    void exceptionWithoutStackTrace() {
+        Assertions.assertEquals(0, new IllegalBase65536TextException("Invalid", false).getStackTrace().length);
+        Assertions.assertEquals(0, new IllegalBase65536TextException(1, 0x41, false).getStackTrace().length);
+        Assertions.assertTrue(new IllegalBase65536TextException("Invalid").getStackTrace().length > 0);
+    }
+
+    @Test
+    void failMalformedUtf8() {
+        byte[] truncated = Arrays.copyOf("\u3400\u3401".getBytes(StandardCharsets.UTF_8), 5);
+        Assertions.assertThrows(IllegalBase65536TextException.class, () -> Base65536.getDecoder().decode(truncated));
+
+        byte[] brokenContinuation = "\u3400\u3401".getBytes(StandardCharsets.UTF_8);
+        brokenContinuation[1] = 0x34;
+        Assertions.assertThrows(IllegalBase65536TextException.class, () -> Base65536.getDecoder().decode(brokenContinuation));
+    }
+
+    @Test
+    void failTwoBytesCodePoint() {
+        Base65536Decoder decoder = Base65536.getDecoder();
+        String text = "\u3400\u00E9\u3401";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Executable chars = () -> decoder.decode(text);
+
+        assertSameError(chars, () -> decoder.decode(bytes));
+        assertSameError(chars, () -> decoder.decode(Arrays.copyOf(bytes, 5)));
+        assertSameError(chars, () -> {
+            try (InputStream is = decoder.wrap(new ByteArrayInputStream(bytes))) {
+                is.readAllBytes();
+            }
+        });
+        Assertions.assertEquals(Base65536ValidationResult.Error.UNKNOWN_CODE_POINT, decoder.validate(bytes).getError());
+        Assertions.assertEquals(3, decoder.validate(bytes).getPosition());
+        Assertions.assertTrue(decoder.decode(ByteBuffer.wrap(bytes), ByteBuffer.allocate(6), true).isUnmappable());
+        Assertions.assertTrue(
+            decoder.decode(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), ByteBuffer.allocate(6), true).isUnmappable()
+        );
+
+        byte[] overlong = {(byte) 0xC1, (byte) 0xA9};
+        Assertions.assertEquals(Base65536ValidationResult.Error.MALFORMED_UTF8, decoder.validate(overlong).getError());
+        Assertions.assertThrows(IllegalBase65536TextException.class, () -> decoder.decode(overlong));
+    }
+
     static List<String> failCaseProvider() {
         File baseDirectory = new File("src/test/resources/bad/");
 
@@ -45,6 +242,553 @@ class Base65536DecoderTest {
         Assertions.assertEquals(expected.length, actual.length);
     }
 
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successTryDecode(String testCase, byte[] expected) {
+        Base65536DecodeResult result = Base65536.getDecoder().tryDecode(testCase);
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertArrayEquals(expected, result.getBytes());
+        Assertions.assertNull(result.getError());
+
+        result = Base65536.getDecoder().tryDecode(testCase.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertArrayEquals(expected, result.getBytes());
+
+        Base65536Decoder lenient = Base65536.getDecoder().lenient();
+        Assertions.assertArrayEquals(expected, lenient.tryDecode(wrapLines(testCase)).getBytes());
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successCharArray(String testCase, byte[] expected) {
+        char[] frame = ("abc" + testCase + "de").toCharArray();
+        byte[] actual = Base65536.getDecoder().decode(frame, 3, testCase.length());
+
+        Assertions.assertArrayEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void valid(String testCase, byte[] expected) {
+        byte[] bytes = testCase.getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertTrue(Base65536.getDecoder().isValid(testCase));
+        Assertions.assertTrue(Base65536.getDecoder().isValid(bytes));
+        Assertions.assertTrue(Base65536.getDecoder().validate(testCase).isValid());
+        Assertions.assertTrue(Base65536.getDecoder().validate(bytes).isValid());
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void decodedLength(String testCase, byte[] expected) {
+        Assertions.assertEquals(expected.length, Base65536.getDecoder().decodedLength(testCase));
+        Assertions.assertEquals(
+            expected.length,
+            Base65536.getDecoder().decodedLength(testCase.getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successUtf8(String testCase, byte[] expected) {
+        byte[] actual = Base65536.getDecoder().decode(testCase.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertArrayEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successIntoArray(String testCase, byte[] expected) {
+        byte[] actual = new byte[expected.length + 1];
+        int written = Base65536.getDecoder().decode(testCase.getBytes(StandardCharsets.UTF_8), actual);
+
+        Assertions.assertEquals(expected.length, written);
+        Assertions.assertArrayEquals(expected, Arrays.copyOf(actual, written));
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successContext(String testCase, byte[] expected) {
+        ByteBuffer decoded = CONTEXT.decode("frame" + testCase + "frame", 5, testCase.length() + 5);
+        Assertions.assertEquals(ByteBuffer.wrap(expected), decoded);
+        Assertions.assertSame(decoded, CONTEXT.decode(testCase.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(ByteBuffer.wrap(expected), decoded);
+
+        Base65536Decoder.Context lenient = Base65536.getDecoder().lenient().newContext();
+        Assertions.assertEquals(ByteBuffer.wrap(expected), lenient.decode(wrapLines(testCase).getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(ByteBuffer.wrap(expected), lenient.decode(wrapLines(testCase), 0, wrapLines(testCase).length()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failContext(String testCase) {
+        byte[] bytes = testCase.getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThrows(Base65536Exception.class, () -> CONTEXT.decode(bytes));
+        Assertions.assertThrows(Base65536Exception.class, () -> CONTEXT.decode(testCase, 0, testCase.length()));
+    }
+
+    @Test
+    void contextAllocatesNothing() {
+        Base65536Decoder.Context context = Base65536.getDecoder().newContext();
+        byte[] src = new byte[33];
+        new Random(33).nextBytes(src);
+        byte[] encoded = Base65536.getEncoder().encode(src);
+        String encodedString = Base65536.getEncoder().encodeToString(src);
+
+        Assertions.assertEquals(0, AllocationCounter.measure(() -> {
+            context.decode(encoded, 0, encoded.length);
+            context.decode(encodedString, 0, encodedString.length());
+        }));
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successRange(String testCase, byte[] expected) {
+        byte[] actual = new byte[expected.length + 4];
+
+        String frame = "frame" + testCase + "frame";
+        int written = Base65536.getDecoder().decode(frame, 5, 5 + testCase.length(), actual, 2);
+        Assertions.assertEquals(expected.length, written);
+        Assertions.assertArrayEquals(expected, Arrays.copyOfRange(actual, 2, 2 + written));
+
+        byte[] src = testCase.getBytes(StandardCharsets.UTF_8);
+        byte[] byteFrame = new byte[src.length + 6];
+        System.arraycopy(src, 0, byteFrame, 3, src.length);
+        written = Base65536.getDecoder().decode(byteFrame, 3, src.length, actual, 1);
+        Assertions.assertEquals(expected.length, written);
+        Assertions.assertArrayEquals(expected, Arrays.copyOfRange(actual, 1, 1 + written));
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successByteBuffer(String testCase, byte[] expected) {
+        byte[] src = testCase.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer heap = ByteBuffer.wrap(src);
+        Assertions.assertEquals(ByteBuffer.wrap(expected), Base65536.getDecoder().decode(heap));
+        Assertions.assertFalse(heap.hasRemaining());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(src.length).put(src);
+        direct.flip();
+        Assertions.assertEquals(ByteBuffer.wrap(expected), Base65536.getDecoder().decode(direct));
+        Assertions.assertFalse(direct.hasRemaining());
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successIncremental(String testCase, byte[] expected) {
+        byte[] src = testCase.getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertArrayEquals(
+            expected,
+            decodeIncrementally(Base65536.getDecoder(), src, ByteBuffer.allocate(7), ByteBuffer.allocate(3))
+        );
+        Assertions.assertArrayEquals(
+            expected,
+            decodeIncrementally(Base65536.getDecoder(), src, ByteBuffer.allocateDirect(7), ByteBuffer.allocateDirect(3))
+        );
+    }
+
+    private static byte[] decodeIncrementally(Base65536Decoder decoder, byte[] testCase, ByteBuffer in, ByteBuffer out) {
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        int read = 0;
+
+        while (true) {
+            int length = Math.min(in.remaining(), testCase.length - read);
+            in.put(testCase, read, length);
+            read += length;
+            boolean endOfInput = read == testCase.length;
+
+            in.flip();
+            CoderResult result = decoder.decode(in, out, endOfInput);
+            in.compact();
+            Assertions.assertFalse(result.isError());
+
+            out.flip();
+            while (out.hasRemaining()) actual.write(out.get());
+            out.clear();
+
+            if (result.isUnderflow() && endOfInput && in.position() == 0) return actual.toByteArray();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successFile(String testCase, byte[] expected) throws IOException {
+        Path in = Files.createTempFile("base65536j", ".txt");
+        Path out = Files.createTempFile("base65536j", ".bin");
+        try {
+            Files.write(in, testCase.getBytes(StandardCharsets.UTF_8));
+            long written = Base65536.getDecoder().decode(in, out);
+
+            Assertions.assertEquals(expected.length, written);
+            Assertions.assertArrayEquals(expected, Files.readAllBytes(out));
+        } finally {
+            Files.delete(in);
+            Files.delete(out);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successStream(String testCase, byte[] expected) throws IOException {
+        byte[] src = testCase.getBytes(StandardCharsets.UTF_8);
+
+        for (int chunkSize : new int[]{1, 5, 4096}) {
+            InputStream chunked = new ByteArrayInputStream(src) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    return super.read(b, off, Math.min(len, chunkSize));
+                }
+            };
+
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (InputStream is = Base65536.getDecoder().wrap(chunked)) {
+                byte[] buffer = new byte[chunkSize];
+                int read;
+                while ((read = is.read(buffer)) != -1) actual.write(buffer, 0, read);
+            }
+
+            Assertions.assertArrayEquals(expected, actual.toByteArray());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {(1 << 20) - 1, 3_000_001, 3_000_002})
+    void successParallel(int length) {
+        byte[] expected = new byte[length];
+        new Random(length).nextBytes(expected);
+        String src = Base65536.getEncoder().encodeToString(expected);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Base65536Decoder decoder = Base65536.getDecoder();
+            Assertions.assertArrayEquals(expected, decoder.decodeParallel(src, pool));
+            Assertions.assertArrayEquals(expected, decoder.decodeParallel(src.getBytes(StandardCharsets.UTF_8), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void failParallel() {
+        byte[] bytes = new byte[3_000_001];
+        new Random(0).nextBytes(bytes);
+        String padded = Base65536.getEncoder().encodeToString(bytes);
+        String src = padded + padded;
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Base65536Decoder decoder = Base65536.getDecoder();
+            Assertions.assertThrows(IllegalBase65536TextException.class, () -> decoder.decodeParallel(src, pool));
+            Assertions.assertThrows(
+                IllegalBase65536TextException.class,
+                () -> decoder.decodeParallel(src.getBytes(StandardCharsets.UTF_8), pool)
+            );
+
+            // Errors far from the first chunk report the same positions as sequential decoding.
+            String unpadded = padded.substring(0, padded.length() - 1);
+            int middle = unpadded.offsetByCodePoints(0, unpadded.codePointCount(0, unpadded.length()) * 3 / 4);
+            String unknown = unpadded.substring(0, middle) + "a" + unpadded.substring(middle);
+            assertSameError(() -> decoder.decode(unknown), () -> decoder.decodeParallel(unknown, pool));
+
+            byte[] malformed = unpadded.getBytes(StandardCharsets.UTF_8);
+            int at = malformed.length * 3 / 4;
+            while ((malformed[at] & 0xC0) == 0x80) at++;
+            malformed[at + 1] = 'a';
+            malformed[malformed.length / 2] = (byte) 0x80;
+            byte[] later = Arrays.copyOf(malformed, malformed.length);
+            later[malformed.length / 2] = unpadded.getBytes(StandardCharsets.UTF_8)[malformed.length / 2];
+            for (byte[] utf8 : new byte[][]{malformed, later}) {
+                assertSameError(() -> decoder.decode(utf8), () -> decoder.decodeParallel(utf8, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameError(Executable expected, Executable actual) {
+        String message = Assertions.assertThrows(IllegalBase65536TextException.class, expected).getMessage();
+        Assertions.assertEquals(message, Assertions.assertThrows(IllegalBase65536TextException.class, actual).getMessage());
+    }
+
+    @ParameterizedTest
+    @MethodSource("failCaseProvider")
+    void failLenient(String testCase) {
+        Base65536Decoder decoder = Base65536.getDecoder().lenient();
+        String stripped = testCase.replaceAll("\\s", "");
+
+        if (stripped.equals(testCase)) {
+            Assertions.assertThrows(Base65536Exception.class, () -> decoder.decode(testCase));
+            Assertions.assertFalse(decoder.isValid(testCase.getBytes(StandardCharsets.UTF_8)));
+        } else {
+            Assertions.assertArrayEquals(Base65536.getDecoder().decode(stripped), decoder.decode(testCase));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successLenient(String testCase, byte[] expected) {
+        Base65536Decoder decoder = Base65536.getDecoder().lenient();
+        String wrapped = wrapLines(testCase);
+        byte[] utf8 = wrapped.getBytes(StandardCharsets.UTF_8);
+        char[] chars = wrapped.toCharArray();
+
+        Assertions.assertTrue(decoder.isLenient());
+        Assertions.assertFalse(Base65536.getDecoder().isLenient());
+        Assertions.assertArrayEquals(expected, decoder.decode(wrapped));
+        Assertions.assertArrayEquals(expected, decoder.decode(chars, 0, chars.length));
+        Assertions.assertArrayEquals(expected, decoder.decode(utf8));
+        Assertions.assertEquals(ByteBuffer.wrap(expected), decoder.decode(ByteBuffer.wrap(utf8)));
+        Assertions.assertEquals(expected.length, decoder.decodedLength(wrapped));
+        Assertions.assertEquals(expected.length, decoder.decodedLength(utf8));
+        Assertions.assertTrue(decoder.isValid(wrapped));
+        Assertions.assertTrue(decoder.isValid(utf8));
+
+        byte[] actual = new byte[expected.length];
+        Assertions.assertEquals(expected.length, decoder.decode(utf8, actual));
+        Assertions.assertArrayEquals(expected, actual);
+        Assertions.assertEquals(expected.length, decoder.decode(wrapped, 0, wrapped.length(), actual, 0));
+        Assertions.assertArrayEquals(expected, actual);
+
+        Assertions.assertArrayEquals(
+            expected,
+            decodeIncrementally(decoder, utf8, ByteBuffer.allocate(7), ByteBuffer.allocate(3))
+        );
+        Assertions.assertArrayEquals(
+            expected,
+            decodeIncrementally(decoder, utf8, ByteBuffer.allocateDirect(7), ByteBuffer.allocateDirect(3))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successLenientStreamAndFile(String testCase, byte[] expected) throws IOException {
+        Base65536Decoder decoder = Base65536.getDecoder().lenient();
+        byte[] src = wrapLines(testCase).getBytes(StandardCharsets.UTF_8);
+
+        try (InputStream is = decoder.wrap(new ByteArrayInputStream(src))) {
+            Assertions.assertArrayEquals(expected, is.readAllBytes());
+        }
+
+        Path in = Files.createTempFile("base65536j", ".txt");
+        Path out = Files.createTempFile("base65536j", ".bin");
+        try {
+            Files.write(in, src);
+            Assertions.assertEquals(expected.length, decoder.decode(in, out));
+            Assertions.assertArrayEquals(expected, Files.readAllBytes(out));
+        } finally {
+            Files.delete(in);
+            Files.delete(out);
+        }
+    }
+
+    @Test
+    void successLenientParallel() {
+        byte[] expected = new byte[3_000_001];
+        new Random(0).nextBytes(expected);
+        String src = wrapLines(Base65536.getEncoder().encodeToString(expected));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Base65536Decoder decoder = Base65536.getDecoder().lenient();
+            Assertions.assertArrayEquals(expected, decoder.decodeParallel(src, pool));
+            Assertions.assertArrayEquals(expected, decoder.decodeParallel(src.getBytes(StandardCharsets.UTF_8), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Wraps the code points of the text into lines as a mail client would, with some more whitespace around.
+     */
+    private static String wrapLines(String text) {
+        StringBuilder wrapped = new StringBuilder(" \t");
+        int[] codePoints = text.codePoints().toArray();
+        for (int i = 0; i < codePoints.length; i++) {
+            if (i > 0 && i % 7 == 0) wrapped.append(i % 14 == 0 ? "\r\n" : " ");
+            wrapped.appendCodePoint(codePoints[i]);
+        }
+        return wrapped.append("\n\f\n").toString();
+    }
+
+    @Test
+    void successBatch() throws IOException {
+        List<byte[]> messages = new ArrayList<>();
+        List<byte[]> expected = new ArrayList<>();
+        for (Arguments arguments : successCaseProvider()) {
+            messages.add(((String) arguments.get()[0]).getBytes(StandardCharsets.UTF_8));
+            expected.add((byte[]) arguments.get()[1]);
+        }
+
+        Random random = new Random(19);
+        for (int i = 0; i < 2000; i++) {
+            byte[] message = new byte[random.nextInt(64)];
+            random.nextBytes(message);
+            messages.add(Base65536.getEncoder().encode(message));
+            expected.add(message);
+        }
+        messages.add(Base65536.getEncoder().encode(new byte[1 << 20]));
+        expected.add(new byte[1 << 20]);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Base65536Batch batch : List.of(
+                Base65536.getDecoder().decodeBatch(messages),
+                Base65536.getDecoder().decodeBatch(messages, pool)
+            )) {
+                Assertions.assertEquals(messages.size(), batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    Assertions.assertArrayEquals(expected.get(i), batch.toByteArray(i));
+                    Assertions.assertEquals(ByteBuffer.wrap(expected.get(i)), batch.get(i));
+                }
+            }
+
+            List<byte[]> lenient = messages.stream()
+                .map(message -> wrapLines(new String(message, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+            Base65536Batch batch = Base65536.getDecoder().lenient().decodeBatch(lenient, pool);
+            for (int i = 0; i < batch.size(); i++) Assertions.assertArrayEquals(expected.get(i), batch.toByteArray(i));
+
+            messages.set(1500, "invalid".getBytes(StandardCharsets.UTF_8));
+            Assertions.assertThrows(IllegalBase65536TextException.class, () -> Base65536.getDecoder().decodeBatch(messages));
+            Assertions.assertThrows(
+                IllegalBase65536TextException.class,
+                () -> Base65536.getDecoder().decodeBatch(messages, pool)
+            );
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 9_999, 100_001})
+    void successRangeWithSeekIndex(int length) throws IOException, ClassNotFoundException {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        String text = Base65536.getEncoder().encodeToString(data);
+        String wrapped = wrapLines(text);
+
+        Path file = Files.createTempFile("seek", ".txt");
+        Path wrappedFile = Files.createTempFile("seek", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            Files.write(wrappedFile, wrapped.getBytes(StandardCharsets.UTF_8));
+
+            Base65536Decoder decoder = Base65536.getDecoder();
+            Base65536Decoder lenient = decoder.lenient();
+            Base65536SeekIndex charIndex = decoder.index(text, 16);
+            Base65536SeekIndex fileIndex = decoder.index(file, 16);
+            Base65536SeekIndex lenientCharIndex = lenient.index(wrapped, 16);
+            Base65536SeekIndex lenientFileIndex = lenient.index(wrappedFile);
+
+            for (Base65536SeekIndex index : List.of(charIndex, fileIndex, lenientCharIndex, lenientFileIndex)) {
+                Assertions.assertEquals(length, index.getDecodedLength());
+                Assertions.assertEquals((length + 1) / 2, index.getCodePointCount());
+            }
+
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream os = new ObjectOutputStream(serialized)) {
+                os.writeObject(fileIndex);
+            }
+            try (ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+                fileIndex = (Base65536SeekIndex) is.readObject();
+            }
+
+            Random random = new Random(~length);
+            List<long[]> ranges = new ArrayList<>(List.of(new long[]{0, length}, new long[]{length, length}));
+            if (length > 0) ranges.add(new long[]{length - 1, length});
+            for (int i = 0; i < 50 && length > 0; i++) {
+                long from = random.nextInt(length);
+                ranges.add(new long[]{from, from + random.nextInt((int) (length - from) + 1)});
+            }
+
+            for (long[] range : ranges) {
+                byte[] expected = Arrays.copyOfRange(data, (int) range[0], (int) range[1]);
+                Assertions.assertArrayEquals(expected, decoder.decodeRange(text, charIndex, range[0], range[1]));
+                Assertions.assertArrayEquals(expected, decoder.decodeRange(file, fileIndex, range[0], range[1]));
+                Assertions.assertArrayEquals(expected, lenient.decodeRange(wrapped, lenientCharIndex, range[0], range[1]));
+                Assertions.assertArrayEquals(
+                    expected,
+                    lenient.decodeRange(wrappedFile, lenientFileIndex, range[0], range[1])
+                );
+            }
+
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> decoder.decodeRange(text, charIndex, 0, length + 1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> decoder.decodeRange(wrapped, charIndex, 0, 0));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> lenient.decodeRange(text, charIndex, 0, 0));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> decoder.decodeRange(file, charIndex, 0, 0));
+        } finally {
+            Files.delete(file);
+            Files.delete(wrappedFile);
+        }
+    }
+
+    @Test
+    void failRangeWithSeekIndex() {
+        String text = "\u3400\u3401abc\u3402\u1500";
+        Base65536SeekIndex index = Base65536.getDecoder().index(text, 2);
+
+        Assertions.assertArrayEquals(new byte[]{0, 0, 1, 0}, Base65536.getDecoder().decodeRange(text, index, 0, 4));
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> Base65536.getDecoder().decodeRange(text, index, 0, 6)
+        );
+        Assertions.assertThrows(IllegalBase65536TextException.class, () -> Base65536.getDecoder().index("\u3400a"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Base65536.getDecoder().index(text, 0));
+
+        // A padding code point ending the range is only valid at the end of the whole text.
+        String padded = "\u3400\u1500\u3401\u3402";
+        Base65536SeekIndex paddedIndex = Base65536.getDecoder().index(padded, 2);
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> Base65536.getDecoder().decodeRange(padded, paddedIndex, 0, 3)
+        );
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> Base65536.getDecoder().decodeRange(padded, paddedIndex, 2, 3)
+        );
+
+        // An index claiming an unpadded text of the same length doesn't match a padded one.
+        String unpadded = "\u3400\u3401";
+        Base65536SeekIndex stale = Base65536.getDecoder().index(unpadded, 2);
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> Base65536.getDecoder().decodeRange("\u3400\u1500", stale, 0, 4)
+        );
+    }
+
+    @Test
+    void failDeserializeSeekIndex() throws IOException {
+        List<Base65536SeekIndex> tampered = List.of(
+            new Base65536SeekIndex(2, new long[]{-1, 2}, 4, 8, 4, false, false),
+            new Base65536SeekIndex(2, new long[]{0, 0}, 4, 8, 4, false, false),
+            new Base65536SeekIndex(2, new long[]{0, 3}, 4, 8, 4, false, false),
+            new Base65536SeekIndex(2, new long[]{0, 2}, 4, 10, 4, false, false),
+            new Base65536SeekIndex(2, new long[]{0, 2}, 4, 8, 3, false, false),
+            new Base65536SeekIndex(2, new long[]{}, 0, -1, 0, false, false),
+            new Base65536SeekIndex(2, new long[]{0}, 4, 8, 4, false, false)
+        );
+        for (Base65536SeekIndex index : tampered) {
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream os = new ObjectOutputStream(serialized)) {
+                os.writeObject(index);
+            }
+            Assertions.assertThrows(InvalidObjectException.class, () -> {
+                try (ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+                    is.readObject();
+                }
+            });
+        }
+    }
+
+    @Test
+    void bufferTooSmall() {
+        byte[] src = Base65536.getEncoder().encode(new byte[]{0, 1, 2});
+        byte[] dst = new byte[2];
+        Assertions.assertThrows(BufferTooSmallException.class, () -> Base65536.getDecoder().decode(src, dst));
+        Assertions.assertArrayEquals(new byte[2], dst);
+    }
+
     static List<Arguments> successCaseProvider() throws IOException {
         File baseDirectory = new File("src/test/resources/pairs/");
         List<File> files = collectAllFiles(baseDirectory);
@@ -0,0 +1,197 @@
+package net.eewbot.base65536j;
+
+import net.eewbot.base65536j.exception.IllegalBase65536TextException;
+import net.eewbot.base65536j.exception.IllegalCompressedDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+class Base65536DeflateCodecTest {
+    private static final String JSON = "{\"type\":\"earthquake\",\"intensity\":\"5-\",\"areas\":[\"Tokyo\",\"Chiba\",\"Saitama\"]}";
+
+    @ParameterizedTest
+    @MethodSource("net.eewbot.base65536j.Base65536EncoderTest#successCaseProvider")
+    void success(byte[] testCase, String plain) {
+        Base65536DeflateCodec codec = Base65536.getDeflateCodec();
+        String encoded = codec.encodeToString(testCase);
+
+        Assertions.assertArrayEquals(testCase, codec.decode(encoded));
+        Assertions.assertArrayEquals(testCase, codec.decode(codec.encode(testCase)));
+        Assertions.assertArrayEquals(encoded.getBytes(StandardCharsets.UTF_8), codec.encode(testCase));
+        Assertions.assertTrue(
+            encoded.codePointCount(0, encoded.length()) <= plain.codePointCount(0, plain.length()) + 1
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("net.eewbot.base65536j.Base65536EncoderTest#successCaseProvider")
+    void successStream(byte[] testCase, String plain) throws IOException {
+        Base65536DeflateCodec codec = Base65536.getDeflateCodec();
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream os = codec.wrap(encoded)) {
+            for (int i = 0; i < testCase.length; i += 1000) os.write(testCase, i, Math.min(1000, testCase.length - i));
+        }
+
+        Assertions.assertArrayEquals(testCase, codec.decode(encoded.toByteArray()));
+        try (InputStream is = codec.wrap(new ByteArrayInputStream(encoded.toByteArray()))) {
+            Assertions.assertArrayEquals(testCase, is.readAllBytes());
+        }
+        try (InputStream is = codec.wrap(new ByteArrayInputStream(codec.encode(testCase)))) {
+            Assertions.assertArrayEquals(testCase, is.readAllBytes());
+        }
+    }
+
+    @Test
+    void compressesJson() {
+        byte[] json = JSON.repeat(20).getBytes(StandardCharsets.UTF_8);
+        String compressed = Base65536.getDeflateCodec().encodeToString(json);
+        String plain = Base65536.getEncoder().encodeToString(json);
+
+        Assertions.assertTrue(compressed.codePointCount(0, compressed.length()) * 4 < plain.codePointCount(0, plain.length()));
+        Assertions.assertArrayEquals(json, Base65536.getDeflateCodec().withLevel(9).decode(compressed));
+    }
+
+    @Test
+    void lenient() {
+        byte[] json = JSON.getBytes(StandardCharsets.UTF_8);
+        String wrapped = Base65536.getDeflateCodec().encodeToString(json).replaceAll("(.{4})", "$1\r\n");
+
+        Assertions.assertArrayEquals(json, Base65536.getDeflateCodec().lenient().decode(wrapped));
+    }
+
+    @Test
+    void fail() {
+        Base65536DeflateCodec codec = Base65536.getDeflateCodec();
+        byte[] deflated = Base65536.getDecoder().decode(codec.encodeToString(JSON.getBytes(StandardCharsets.UTF_8)));
+
+        byte[] unknownHeader = deflated.clone();
+        unknownHeader[0] = 2;
+        byte[] truncated = Arrays.copyOf(deflated, deflated.length / 2);
+        byte[] trailing = Arrays.copyOf(deflated, deflated.length + 2);
+
+        for (byte[] framed : new byte[][]{new byte[0], unknownHeader, truncated, trailing}) {
+            String text = Base65536.getEncoder().encodeToString(framed);
+            Assertions.assertThrows(IllegalCompressedDataException.class, () -> codec.decode(text));
+            Assertions.assertThrows(IllegalCompressedDataException.class, () -> {
+                try (InputStream is = codec.wrap(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)))) {
+                    is.readAllBytes();
+                }
+            });
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.withLevel(10));
+    }
+
+    @Test
+    void failTooLarge() throws IOException {
+        Base65536DeflateCodec codec = Base65536.getDeflateCodec();
+        byte[] zeros = new byte[1 << 20];
+        String bomb = codec.encodeToString(zeros);
+        byte[] utf8 = bomb.getBytes(StandardCharsets.UTF_8);
+        Assertions.assertTrue(bomb.length() < 1000);
+
+        Assertions.assertArrayEquals(zeros, codec.decode(bomb, zeros.length));
+        Assertions.assertArrayEquals(zeros, codec.decode(utf8, zeros.length));
+        try (InputStream is = codec.wrap(new ByteArrayInputStream(utf8), zeros.length)) {
+            Assertions.assertArrayEquals(zeros, is.readAllBytes());
+        }
+
+        for (int maxLength : new int[]{0, 1, 8191, 8192, zeros.length - 1}) {
+            Assertions.assertThrows(IllegalCompressedDataException.class, () -> codec.decode(bomb, maxLength));
+            Assertions.assertThrows(IllegalCompressedDataException.class, () -> codec.decode(utf8, maxLength));
+            Assertions.assertThrows(IllegalCompressedDataException.class, () -> {
+                try (InputStream is = codec.wrap(new ByteArrayInputStream(utf8), maxLength)) {
+                    is.readAllBytes();
+                }
+            });
+        }
+
+        String stored = codec.encodeToString(new byte[]{1, 2, 3});
+        Assertions.assertThrows(IllegalCompressedDataException.class, () -> codec.decode(stored, 2));
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, codec.decode(stored, 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.decode(stored, -1));
+    }
+
+    @Test
+    void failTooLargeByDefault() {
+        byte[] zeros = new byte[Base65536DeflateCodec.DEFAULT_MAX_DECODED_LENGTH + 1];
+        Base65536DeflateCodec codec = Base65536.getDeflateCodec();
+        byte[] bomb = codec.encode(zeros);
+
+        Assertions.assertThrows(IllegalCompressedDataException.class, () -> codec.decode(bomb));
+        Assertions.assertThrows(IllegalCompressedDataException.class, () -> {
+            try (InputStream is = codec.wrap(new ByteArrayInputStream(bomb))) {
+                is.transferTo(OutputStream.nullOutputStream());
+            }
+        });
+    }
+
+    @Test
+    void failWithoutStackTraces() throws Exception {
+        byte[] unknownHeader = Base65536.getEncoder().encode(new byte[]{2, 0});
+        byte[] bomb = Base65536.getDeflateCodec().encode(new byte[1 << 20]);
+
+        // The property is read once, so the library is loaded again by a class loader of its own which sees it.
+        String previous = System.setProperty(Base65536Decoder.STACK_TRACE_PROPERTY, "false");
+        URL library = Base65536.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{library}, null)) {
+            Class<?> base65536 = loader.loadClass(Base65536.class.getName());
+            Object decoder = base65536.getMethod("getDecoder").invoke(null);
+            Object codec = base65536.getMethod("getDeflateCodec").invoke(null);
+
+            assertNoStackTrace(IllegalBase65536TextException.class, () ->
+                decoder.getClass().getMethod("decode", String.class).invoke(decoder, "abc")
+            );
+            assertNoStackTrace(IllegalCompressedDataException.class, () ->
+                codec.getClass().getMethod("decode", byte[].class).invoke(codec, (Object) unknownHeader)
+            );
+            assertNoStackTrace(IllegalCompressedDataException.class, () ->
+                codec.getClass().getMethod("decode", byte[].class, int.class).invoke(codec, bomb, 1000)
+            );
+            assertNoStackTrace(IllegalCompressedDataException.class, () -> {
+                Object wrap = codec.getClass().getMethod("wrap", InputStream.class, long.class)
+                    .invoke(codec, new ByteArrayInputStream(bomb), 1000L);
+                try (InputStream is = (InputStream) wrap) {
+                    is.readAllBytes();
+                }
+            });
+        } finally {
+            if (previous == null) {
+                System.clearProperty(Base65536Decoder.STACK_TRACE_PROPERTY);
+            } else {
+                System.setProperty(Base65536Decoder.STACK_TRACE_PROPERTY, previous);
+            }
+        }
+
+        IllegalCompressedDataException e = Assertions.assertThrows(
+            IllegalCompressedDataException.class,
+            () -> Base65536.getDeflateCodec().decode(bomb, 1000)
+        );
+        Assertions.assertTrue(e.getStackTrace().length > 0);
+    }
+
+    /**
+     * Asserts that the given call, into classes of another class loader, throws the given type of exception without a
+     * stack trace.
+     */
+    private static void assertNoStackTrace(Class<?> type, Executable executable) {
+        Throwable e = Assertions.assertThrows(Exception.class, executable);
+        if (e instanceof InvocationTargetException) e = e.getCause();
+
+        Assertions.assertEquals(type.getName(), e.getClass().getName());
+        Assertions.assertEquals(0, e.getStackTrace().length);
+    }
+}
@@ -1,21 +1,35 @@
 package net.eewbot.base65536j;
 
+import net.eewbot.base65536j.exception.BufferTooSmallException;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 public class Base65536EncoderTest {
+    private static final Base65536Encoder.Context CONTEXT = Base65536.getEncoder().newContext();
+
     @ParameterizedTest
     @MethodSource("successCaseProvider")
     void success(byte[] testCase, String expected) {
@@ -26,6 +40,242 @@ public class Base65536EncoderTest {
         Assertions.assertEquals(expectedBytes.length, actual.length);
     }
 
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void encodedLength(byte[] testCase, String expected) {
+        Base65536Encoder encoder = Base65536.getEncoder();
+
+        Assertions.assertEquals(expected.codePointCount(0, expected.length()), encoder.encodedCodePointLength(testCase.length));
+        Assertions.assertEquals(expected.length(), encoder.encodedCharLength(testCase));
+        Assertions.assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, encoder.encodedUtf8Length(testCase));
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successToString(byte[] testCase, String expected) {
+        Assertions.assertEquals(expected, Base65536.getEncoder().encodeToString(testCase));
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successIntoArray(byte[] testCase, String expected) {
+        byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+        byte[] actual = new byte[expectedBytes.length + 1];
+        int written = Base65536.getEncoder().encode(testCase, actual);
+
+        Assertions.assertEquals(expectedBytes.length, written);
+        Assertions.assertArrayEquals(expectedBytes, Arrays.copyOf(actual, written));
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successContext(byte[] testCase, String expected) {
+        ByteBuffer bytes = CONTEXT.encode(testCase);
+        Assertions.assertEquals(ByteBuffer.wrap(expected.getBytes(StandardCharsets.UTF_8)), bytes);
+        Assertions.assertSame(bytes, CONTEXT.encode(testCase));
+
+        byte[] frame = new byte[testCase.length + 3];
+        System.arraycopy(testCase, 0, frame, 2, testCase.length);
+        Assertions.assertEquals(expected, CONTEXT.encodeToChars(frame, 2, testCase.length).toString());
+    }
+
+    @Test
+    void contextAllocatesNothing() {
+        Base65536Encoder.Context context = Base65536.getEncoder().newContext();
+        byte[] src = new byte[33];
+        new Random(33).nextBytes(src);
+
+        Assertions.assertEquals(0, AllocationCounter.measure(() -> {
+            context.encode(src, 0, src.length);
+            context.encode(src, 1, 1);
+            context.encodeToChars(src, 0, src.length);
+        }));
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successRange(byte[] testCase, String expected) throws IOException {
+        byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[testCase.length + 6];
+        System.arraycopy(testCase, 0, frame, 3, testCase.length);
+
+        byte[] actual = new byte[expectedBytes.length + 4];
+        int written = Base65536.getEncoder().encode(frame, 3, testCase.length, actual, 2);
+        Assertions.assertEquals(expectedBytes.length, written);
+        Assertions.assertArrayEquals(expectedBytes, Arrays.copyOfRange(actual, 2, 2 + written));
+
+        StringBuilder builder = new StringBuilder("prefix");
+        Assertions.assertEquals(expected.length(), Base65536.getEncoder().encode(frame, 3, testCase.length, builder));
+        Assertions.assertEquals("prefix" + expected, builder.toString());
+
+        StringWriter writer = new StringWriter();
+        Assertions.assertEquals(expected.length(), Base65536.getEncoder().encode(frame, 3, testCase.length, writer));
+        Assertions.assertEquals(expected, writer.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successByteBuffer(byte[] testCase, String expected) {
+        byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer heap = ByteBuffer.wrap(testCase);
+        Assertions.assertEquals(ByteBuffer.wrap(expectedBytes), Base65536.getEncoder().encode(heap));
+        Assertions.assertFalse(heap.hasRemaining());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(testCase.length).put(testCase);
+        direct.flip();
+        Assertions.assertEquals(ByteBuffer.wrap(expectedBytes), Base65536.getEncoder().encode(direct));
+        Assertions.assertFalse(direct.hasRemaining());
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successIncremental(byte[] testCase, String expected) {
+        byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertArrayEquals(
+            expectedBytes,
+            encodeIncrementally(testCase, ByteBuffer.allocate(7), ByteBuffer.allocate(5))
+        );
+        Assertions.assertArrayEquals(
+            expectedBytes,
+            encodeIncrementally(testCase, ByteBuffer.allocateDirect(7), ByteBuffer.allocateDirect(5))
+        );
+    }
+
+    private static byte[] encodeIncrementally(byte[] testCase, ByteBuffer in, ByteBuffer out) {
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        int read = 0;
+
+        while (true) {
+            int length = Math.min(in.remaining(), testCase.length - read);
+            in.put(testCase, read, length);
+            read += length;
+            boolean endOfInput = read == testCase.length;
+
+            in.flip();
+            CoderResult result = Base65536.getEncoder().encode(in, out, endOfInput);
+            in.compact();
+
+            out.flip();
+            while (out.hasRemaining()) actual.write(out.get());
+            out.clear();
+
+            if (result.isUnderflow() && endOfInput && in.position() == 0) return actual.toByteArray();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successFile(byte[] testCase, String expected) throws IOException {
+        Path in = Files.createTempFile("base65536j", ".bin");
+        Path out = Files.createTempFile("base65536j", ".txt");
+        try {
+            Files.write(in, testCase);
+            long written = Base65536.getEncoder().encode(in, out);
+
+            byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+            Assertions.assertEquals(expectedBytes.length, written);
+            Assertions.assertArrayEquals(expectedBytes, Files.readAllBytes(out));
+        } finally {
+            Files.delete(in);
+            Files.delete(out);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("successCaseProvider")
+    void successStream(byte[] testCase, String expected) throws IOException {
+        byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+
+        for (int chunkSize : new int[]{1, 3, 4096, Integer.MAX_VALUE}) {
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (OutputStream os = Base65536.getEncoder().wrap(actual)) {
+                int length;
+                for (int i = 0; i < testCase.length; i += length) {
+                    length = Math.min(chunkSize, testCase.length - i);
+                    if (length == 1) {
+                        os.write(testCase[i]);
+                    } else {
+                        os.write(testCase, i, length);
+                    }
+                }
+            }
+
+            Assertions.assertArrayEquals(expectedBytes, actual.toByteArray());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {(1 << 20) - 1, 3_000_001, 3_000_002})
+    void successParallel(int length) {
+        byte[] src = new byte[length];
+        new Random(length).nextBytes(src);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Base65536Encoder encoder = Base65536.getEncoder();
+            Assertions.assertArrayEquals(encoder.encode(src), encoder.encodeParallel(src, pool));
+            Assertions.assertEquals(encoder.encodeToString(src), encoder.encodeToStringParallel(src, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void successBatch() throws IOException {
+        List<byte[]> messages = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (Arguments arguments : successCaseProvider()) {
+            messages.add((byte[]) arguments.get()[0]);
+            expected.add((String) arguments.get()[1]);
+        }
+
+        Random random = new Random(19);
+        for (int i = 0; i < 2000; i++) {
+            byte[] message = new byte[random.nextInt(64)];
+            random.nextBytes(message);
+            messages.add(message);
+            expected.add(Base65536.getEncoder().encodeToString(message));
+        }
+
+        Base65536Batch batch = Base65536.getEncoder().encodeBatch(messages);
+        Assertions.assertEquals(messages.size(), batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] expectedBytes = expected.get(i).getBytes(StandardCharsets.UTF_8);
+            Assertions.assertArrayEquals(expectedBytes, batch.toByteArray(i));
+            Assertions.assertEquals(ByteBuffer.wrap(expectedBytes), batch.get(i));
+            Assertions.assertEquals(expectedBytes.length, batch.length(i));
+        }
+        Assertions.assertEquals(batch.array().length, batch.offset(batch.size() - 1) + batch.length(batch.size() - 1));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            messages.add(new byte[1 << 20]);
+            Base65536Batch parallel = Base65536.getEncoder().encodeBatch(messages, pool);
+            Assertions.assertEquals(messages.size(), parallel.size());
+            Assertions.assertArrayEquals(
+                Arrays.copyOf(parallel.array(), batch.array().length),
+                batch.array()
+            );
+            Assertions.assertArrayEquals(Base65536.getEncoder().encode(new byte[1 << 20]), parallel.toByteArray(messages.size() - 1));
+        } finally {
+            pool.shutdown();
+        }
+
+        Base65536Batch empty = Base65536.getEncoder().encodeBatch(List.of());
+        Assertions.assertEquals(0, empty.size());
+        Assertions.assertEquals(0, empty.array().length);
+    }
+
+    @Test
+    void bufferTooSmall() {
+        byte[] src = {0, 1, 2};
+        byte[] dst = new byte[5];
+        Assertions.assertThrows(BufferTooSmallException.class, () -> Base65536.getEncoder().encode(src, dst));
+        Assertions.assertArrayEquals(new byte[5], dst);
+    }
+
     static List<Arguments> successCaseProvider() throws IOException {
         File baseDirectory = new File("src/test/resources/pairs/");
         List<File> files = collectAllFiles(baseDirectory);
@@ -0,0 +1,261 @@
+package net.eewbot.base65536j;
+
+import net.eewbot.base65536j.exception.IllegalBase65536TextException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class Base65536MetricsTest {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+
+    private record Call(
+        Base65536Metrics.Operation operation,
+        Base65536Metrics.Mode mode,
+        long inputLength,
+        long outputLength,
+        Throwable failure
+    ) {}
+
+    private final List<Call> calls = new ArrayList<>();
+    private final Base65536Metrics.Listener listener = (operation, mode, inputLength, outputLength, durationNanos, failure) -> {
+        Assertions.assertTrue(durationNanos >= 0);
+        calls.add(new Call(operation, mode, inputLength, outputLength, failure));
+    };
+    private long threshold;
+
+    @BeforeEach
+    void register() {
+        threshold = Base65536Metrics.getThreshold();
+        Base65536Metrics.addListener(listener);
+    }
+
+    @AfterEach
+    void unregister() {
+        Assertions.assertTrue(Base65536Metrics.removeListener(listener));
+        Base65536Metrics.setThreshold(threshold);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private void assertCall(
+        Base65536Metrics.Operation operation,
+        Base65536Metrics.Mode mode,
+        long inputLength,
+        long outputLength
+    ) {
+        Assertions.assertEquals(1, calls.size(), calls.toString());
+        Assertions.assertEquals(new Call(operation, mode, inputLength, outputLength, null), calls.remove(0));
+    }
+
+    @Test
+    void reportsOneShotOperations() {
+        Base65536Metrics.setThreshold(0);
+        byte[] data = randomBytes(101);
+        byte[] encoded = encoder.encode(data);
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.ARRAY, 101, encoded.length);
+
+        String encodedString = encoder.encodeToString(data);
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.STRING, 101, encodedString.length());
+
+        encoder.encode(ByteBuffer.wrap(data));
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.BUFFER, 101, encoded.length);
+
+        decoder.decode(encoded);
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.ARRAY, encoded.length, 101);
+
+        decoder.decode(encodedString);
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.STRING, encodedString.length(), 101);
+
+        decoder.decode(ByteBuffer.wrap(encoded));
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.BUFFER, encoded.length, 101);
+
+        byte[] dst = new byte[101];
+        Assertions.assertEquals(101, decoder.decode(encodedString, 0, encodedString.length(), dst, 0));
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.STRING, encodedString.length(), 101);
+    }
+
+    @Test
+    void reportsParallelOperations() {
+        Base65536Metrics.setThreshold(0);
+        byte[] data = randomBytes(ParallelSupport.THRESHOLD * 3 + 1);
+        byte[] encoded = encoder.encodeParallel(data);
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.PARALLEL, data.length, encoded.length);
+
+        String encodedString = encoder.encodeToStringParallel(data);
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.PARALLEL, data.length, encodedString.length());
+
+        decoder.decodeParallel(encoded);
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.PARALLEL, encoded.length, data.length);
+
+        decoder.decodeParallel(encodedString);
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.PARALLEL, encodedString.length(), data.length);
+
+        byte[] small = encoder.encode(new byte[10]);
+        String smallString = encoder.encodeToString(new byte[10]);
+        calls.clear();
+        decoder.decodeParallel(small);
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.ARRAY, 15, 10);
+        decoder.decodeParallel(smallString);
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.STRING, 5, 10);
+    }
+
+    @Test
+    void reportsStreamsOnClose() throws IOException {
+        Base65536Metrics.setThreshold(0);
+        byte[] data = randomBytes(20001);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        OutputStream os = encoder.wrap(encoded);
+        os.write(data, 0, 10000);
+        os.write(data, 10000, 10001);
+        Assertions.assertTrue(calls.isEmpty());
+        os.close();
+        os.close();
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.STREAM, data.length, encoded.size());
+
+        try (InputStream is = decoder.wrap(new ByteArrayInputStream(encoded.toByteArray()))) {
+            Assertions.assertArrayEquals(data, is.readAllBytes());
+        }
+        assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.STREAM, encoded.size(), data.length);
+    }
+
+    @Test
+    void reportsFiles() throws IOException {
+        Base65536Metrics.setThreshold(0);
+        byte[] data = randomBytes(5001);
+        Path plain = Files.createTempFile("metrics", ".bin");
+        Path encoded = Files.createTempFile("metrics", ".txt");
+        try {
+            Files.write(plain, data);
+            long length = encoder.encode(plain, encoded);
+            assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.FILE, data.length, length);
+
+            Assertions.assertEquals(data.length, decoder.decode(encoded, plain));
+            assertCall(Base65536Metrics.Operation.DECODE, Base65536Metrics.Mode.FILE, length, data.length);
+        } finally {
+            Files.delete(plain);
+            Files.delete(encoded);
+        }
+    }
+
+    @Test
+    void reportsFailures() {
+        Base65536Metrics.setThreshold(0);
+        byte[] invalid = "abc".getBytes(StandardCharsets.UTF_8);
+        IllegalBase65536TextException e = Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> decoder.decode(invalid)
+        );
+
+        Assertions.assertEquals(1, calls.size());
+        Call call = calls.get(0);
+        Assertions.assertEquals(Base65536Metrics.Operation.DECODE, call.operation());
+        Assertions.assertEquals(Base65536Metrics.Mode.ARRAY, call.mode());
+        Assertions.assertEquals(3, call.inputLength());
+        Assertions.assertEquals(0, call.outputLength());
+        Assertions.assertSame(e, call.failure());
+    }
+
+    @Test
+    void skipsBelowThreshold() throws IOException {
+        Base65536Metrics.setThreshold(100);
+        encoder.encode(new byte[99]);
+        decoder.decode(encoder.encode(new byte[60]));
+        Assertions.assertTrue(calls.isEmpty());
+
+        try (OutputStream os = encoder.wrap(new ByteArrayOutputStream())) {
+            os.write(new byte[50]);
+        }
+        Assertions.assertTrue(calls.isEmpty());
+
+        encoder.encode(new byte[100]);
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.ARRAY, 100, 150);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Base65536Metrics.setThreshold(-1));
+    }
+
+    @Test
+    void stopsReportingAfterRemoval() {
+        Base65536Metrics.setThreshold(0);
+        Base65536Metrics.Listener other = (operation, mode, inputLength, outputLength, durationNanos, failure) ->
+            Assertions.fail("Called after removal");
+        Base65536Metrics.addListener(other);
+        Assertions.assertTrue(Base65536Metrics.removeListener(other));
+        Assertions.assertFalse(Base65536Metrics.removeListener(other));
+
+        encoder.encode(new byte[2]);
+        assertCall(Base65536Metrics.Operation.ENCODE, Base65536Metrics.Mode.ARRAY, 2, 3);
+    }
+
+    @Test
+    void ignoresThrowingListeners() {
+        Base65536Metrics.setThreshold(0);
+        Base65536Metrics.Listener throwing = (operation, mode, inputLength, outputLength, durationNanos, failure) -> {
+            throw new IllegalStateException("Broken listener");
+        };
+        // The throwing listener is called first, so the other one shows that the dispatch goes on after it.
+        Base65536Metrics.removeListener(listener);
+        Base65536Metrics.addListener(throwing);
+        Base65536Metrics.addListener(listener);
+        try {
+            Assertions.assertArrayEquals(encoder.encode(new byte[2]), encoder.encode(new byte[2]));
+            calls.clear();
+
+            Assertions.assertThrows(IllegalBase65536TextException.class, () -> decoder.decode("abc"));
+            Assertions.assertEquals(1, calls.size());
+            Assertions.assertInstanceOf(IllegalBase65536TextException.class, calls.get(0).failure());
+        } finally {
+            Assertions.assertTrue(Base65536Metrics.removeListener(throwing));
+        }
+    }
+
+    @Test
+    void emitsFlightRecorderEvents() throws IOException {
+        Base65536Metrics.setThreshold(1000);
+        byte[] data = randomBytes(1000);
+        Path dump = Files.createTempFile("metrics", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(OperationEvent.class).withoutThreshold();
+                recording.start();
+                encoder.encode(data);
+                encoder.encode(new byte[10]);
+                recording.stop();
+                recording.dump(dump);
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            events.removeIf(event -> !event.getEventType().getName().equals("net.eewbot.base65536j.Operation"));
+            Assertions.assertEquals(1, events.size());
+            Assertions.assertEquals("ENCODE", events.get(0).getString("operation"));
+            Assertions.assertEquals("ARRAY", events.get(0).getString("mode"));
+            Assertions.assertEquals(1000, events.get(0).getLong("inputSize"));
+            Assertions.assertNull(events.get(0).getString("failure"));
+        } finally {
+            Files.delete(dump);
+        }
+    }
+}
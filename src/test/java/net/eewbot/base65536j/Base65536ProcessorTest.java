@@ -0,0 +1,424 @@
+package net.eewbot.base65536j;
+
+import net.eewbot.base65536j.exception.IllegalBase65536TextException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+class Base65536ProcessorTest {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final Base65536Decoder decoder = Base65536.getDecoder();
+
+    /**
+     * Publishes the given buffers synchronously as they are requested.
+     */
+    private static final class ListPublisher<T> implements Flow.Publisher<T> {
+        private final List<T> items;
+        private int next = 0;
+        private long requested = 0;
+        private boolean emitting = false;
+        private boolean done = false;
+        private boolean cancelled = false;
+
+        private ListPublisher(List<T> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super T> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested += n;
+                    if (emitting) return;
+
+                    emitting = true;
+                    while (requested > 0 && next < items.size() && !cancelled) {
+                        requested--;
+                        subscriber.onNext(items.get(next++));
+                    }
+                    if (next == items.size() && !cancelled && !done) {
+                        done = true;
+                        subscriber.onComplete();
+                    }
+                    emitting = false;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static final class Collector<O extends Buffer> implements Flow.Subscriber<O> {
+        private final Base65536Processor<?, O> processor;
+        private final Consumer<O> sink;
+        private final boolean release;
+        private final long initialRequest;
+        private final List<O> kept = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean complete = false;
+        private int received = 0;
+
+        private Collector(Base65536Processor<?, O> processor, Consumer<O> sink, boolean release, long initialRequest) {
+            this.processor = processor;
+            this.sink = sink;
+            this.release = release;
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(O item) {
+            received++;
+            Assertions.assertTrue(item.hasRemaining());
+            sink.accept(item);
+            if (release) {
+                processor.release(item);
+            } else {
+                kept.add(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+    }
+
+    private static List<ByteBuffer> chunks(byte[] data, int chunkLength) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        for (int i = 0; i < data.length; i += chunkLength) {
+            chunks.add(ByteBuffer.wrap(data, i, Math.min(chunkLength, data.length - i)).slice());
+        }
+        return chunks;
+    }
+
+    private static List<CharBuffer> chunks(String data, int chunkLength) {
+        List<CharBuffer> chunks = new ArrayList<>();
+        for (int i = 0; i < data.length(); i += chunkLength) {
+            chunks.add(CharBuffer.wrap(data, i, Math.min(data.length(), i + chunkLength)).slice());
+        }
+        return chunks;
+    }
+
+    private static byte[] runBytes(Base65536Processor<?, ByteBuffer> processor, Flow.Publisher<?> publisher) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Collector<ByteBuffer> collector = new Collector<>(processor, buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(buffer.position(), bytes);
+            out.writeBytes(bytes);
+        }, true, 1);
+        processor.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                collector.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                collector.onNext(item);
+                collector.subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                collector.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                collector.onComplete();
+            }
+        });
+        subscribe(publisher, processor);
+
+        if (collector.error != null) throw (RuntimeException) collector.error;
+        Assertions.assertTrue(collector.complete);
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I> void subscribe(Flow.Publisher<?> publisher, Flow.Subscriber<I> subscriber) {
+        ((Flow.Publisher<I>) publisher).subscribe(subscriber);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 7, 64, 1000})
+    void successProcessor(int chunkLength) {
+        for (int length : new int[]{0, 1, 2, 3, 100, 1001}) {
+            byte[] data = new byte[length];
+            new Random(length * 31L + chunkLength).nextBytes(data);
+            byte[] encoded = encoder.encode(data);
+            String encodedString = encoder.encodeToString(data);
+
+            Assertions.assertArrayEquals(
+                encoded,
+                runBytes(encoder.newPooledProcessor(16, 2), new ListPublisher<>(chunks(data, chunkLength)))
+            );
+            Assertions.assertArrayEquals(
+                data,
+                runBytes(decoder.newPooledProcessor(16, 2), new ListPublisher<>(chunks(encoded, chunkLength)))
+            );
+            Assertions.assertArrayEquals(
+                data,
+                runBytes(decoder.newPooledCharProcessor(4, 1), new ListPublisher<>(chunks(encodedString, chunkLength)))
+            );
+            Assertions.assertArrayEquals(
+                encoded,
+                runBytes(encoder.newProcessor(16), new ListPublisher<>(chunks(data, chunkLength)))
+            );
+            Assertions.assertArrayEquals(
+                data,
+                runBytes(decoder.newCharProcessor(4), new ListPublisher<>(chunks(encodedString, chunkLength)))
+            );
+
+            Base65536Processor<ByteBuffer, CharBuffer> charEncoder = encoder.newPooledCharProcessor(5, 3);
+            StringBuilder builder = new StringBuilder();
+            Collector<CharBuffer> collector = new Collector<>(charEncoder, builder::append, true, Long.MAX_VALUE);
+            charEncoder.subscribe(collector);
+            new ListPublisher<>(chunks(data, chunkLength)).subscribe(charEncoder);
+            Assertions.assertNull(collector.error);
+            Assertions.assertTrue(collector.complete);
+            Assertions.assertEquals(encodedString, builder.toString());
+        }
+    }
+
+    @Test
+    void successLenientProcessor() {
+        byte[] data = {1, 2, 3, 4, 5};
+        String text = " " + encoder.encodeToString(data).replaceAll("(.)", "$1\n") + "  \r\n";
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertArrayEquals(
+            data,
+            runBytes(decoder.lenient().newProcessor(), new ListPublisher<>(chunks(utf8, 2)))
+        );
+        Assertions.assertArrayEquals(
+            data,
+            runBytes(decoder.lenient().newCharProcessor(), new ListPublisher<>(chunks(text, 1)))
+        );
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> runBytes(decoder.newProcessor(), new ListPublisher<>(chunks(utf8, 2)))
+        );
+    }
+
+    @Test
+    void successLenientTrailingWhitespace() {
+        byte[] data = {1, 2, 3};
+        String text = encoder.encodeToString(data) + " \r\n".repeat(100000);
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertArrayEquals(
+            data,
+            runBytes(decoder.lenient().newProcessor(), new ListPublisher<>(chunks(utf8, 1000)))
+        );
+        Assertions.assertArrayEquals(
+            data,
+            runBytes(decoder.lenient().newCharProcessor(), new ListPublisher<>(chunks(text, 7)))
+        );
+        byte[] afterPadding = (text + "\u3400").getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> runBytes(decoder.lenient().newProcessor(), new ListPublisher<>(chunks(afterPadding, 1000)))
+        );
+    }
+
+    @Test
+    void successUnreleasedBuffers() {
+        byte[] data = new byte[1000];
+        new Random(1000).nextBytes(data);
+        Base65536Processor<ByteBuffer, ByteBuffer> processor = encoder.newProcessor(8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Collector<ByteBuffer> collector = new Collector<>(processor, buffer -> {}, false, Long.MAX_VALUE);
+        processor.subscribe(collector);
+        new ListPublisher<>(chunks(data, 10)).subscribe(processor);
+
+        // The buffers are copies kept by the subscriber, so the stream runs to its end without releasing them.
+        Assertions.assertNull(collector.error);
+        Assertions.assertTrue(collector.complete);
+        Assertions.assertTrue(collector.received > Base65536Processor.DEFAULT_MAX_BUFFERS);
+        for (ByteBuffer buffer : collector.kept) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            out.writeBytes(bytes);
+        }
+        Assertions.assertArrayEquals(encoder.encode(data), out.toByteArray());
+    }
+
+    @Test
+    void successBoundedBuffers() {
+        byte[] data = new byte[1000];
+        new Random(1000).nextBytes(data);
+        ListPublisher<ByteBuffer> publisher = new ListPublisher<>(chunks(data, 10));
+        Base65536Processor<ByteBuffer, ByteBuffer> processor = encoder.newPooledProcessor(8, 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Collector<ByteBuffer> collector = new Collector<>(processor, buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(buffer.position(), bytes);
+            out.writeBytes(bytes);
+        }, false, Long.MAX_VALUE);
+        processor.subscribe(collector);
+        publisher.subscribe(processor);
+
+        // Nothing is released, so only the pool's buffers are passed on, and upstream is not read beyond them.
+        Assertions.assertEquals(3, collector.received);
+        Assertions.assertFalse(collector.complete);
+        Assertions.assertTrue(publisher.next <= 3);
+
+        while (!collector.complete) {
+            Assertions.assertFalse(collector.kept.isEmpty());
+            processor.release(collector.kept.remove(0));
+        }
+        Assertions.assertNull(collector.error);
+        Assertions.assertArrayEquals(encoder.encode(data), out.toByteArray());
+    }
+
+    @Test
+    void successAsyncProcessor() throws InterruptedException {
+        byte[] data = new byte[100001];
+        new Random(100001).nextBytes(data);
+        Base65536Processor<ByteBuffer, ByteBuffer> processor = encoder.newPooledProcessor(1000, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CountDownLatch done = new CountDownLatch(1);
+        // The subscriber works on its own thread, releasing and requesting from there.
+        ExecutorService consumer = Executors.newSingleThreadExecutor();
+        processor.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                consumer.execute(() -> {
+                    byte[] bytes = new byte[item.remaining()];
+                    item.get(bytes);
+                    out.writeBytes(bytes);
+                    processor.release(item);
+                    subscription.request(1);
+                });
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                consumer.execute(done::countDown);
+            }
+
+            @Override
+            public void onComplete() {
+                consumer.execute(done::countDown);
+            }
+        });
+
+        try (SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), 4)) {
+            publisher.subscribe(processor);
+            for (ByteBuffer chunk : chunks(data, 777)) publisher.submit(chunk);
+        }
+
+        Assertions.assertTrue(done.await(30, TimeUnit.SECONDS));
+        consumer.shutdown();
+        Assertions.assertArrayEquals(encoder.encode(data), out.toByteArray());
+    }
+
+    @Test
+    void successDemand() {
+        byte[] data = new byte[100];
+        ListPublisher<ByteBuffer> publisher = new ListPublisher<>(chunks(data, 10));
+        Base65536Processor<ByteBuffer, ByteBuffer> processor = encoder.newPooledProcessor(8, 100);
+        Collector<ByteBuffer> collector = new Collector<>(processor, buffer -> {}, true, 2);
+        processor.subscribe(collector);
+        publisher.subscribe(processor);
+
+        Assertions.assertEquals(2, collector.received);
+        Assertions.assertTrue(publisher.next <= 2);
+
+        collector.subscription.request(3);
+        Assertions.assertEquals(5, collector.received);
+
+        collector.subscription.cancel();
+        Assertions.assertTrue(publisher.cancelled);
+        Assertions.assertFalse(collector.complete);
+    }
+
+    @Test
+    void failProcessor() {
+        byte[] invalid = "\u3400\u3401ABC".getBytes(StandardCharsets.UTF_8);
+        IllegalBase65536TextException e = Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> runBytes(decoder.newProcessor(), new ListPublisher<>(chunks(invalid, 1)))
+        );
+        Assertions.assertNotNull(e.getMessage());
+
+        String afterPadding = encoder.encodeToString(new byte[]{1}) + encoder.encodeToString(new byte[]{2, 3});
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> runBytes(decoder.newCharProcessor(), new ListPublisher<>(chunks(afterPadding, 1)))
+        );
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> runBytes(decoder.newCharProcessor(), new ListPublisher<>(chunks("\uD840", 1)))
+        );
+        Assertions.assertThrows(
+            IllegalBase65536TextException.class,
+            () -> runBytes(decoder.newProcessor(), new ListPublisher<>(chunks(new byte[]{(byte) 0xE3, (byte) 0x90}, 1)))
+        );
+
+        ListPublisher<ByteBuffer> publisher = new ListPublisher<>(chunks(invalid, 1));
+        Base65536Processor<ByteBuffer, ByteBuffer> processor = decoder.newProcessor();
+        Collector<ByteBuffer> collector = new Collector<>(processor, buffer -> {}, true, Long.MAX_VALUE);
+        processor.subscribe(collector);
+        publisher.subscribe(processor);
+        Assertions.assertInstanceOf(IllegalBase65536TextException.class, collector.error);
+        Assertions.assertTrue(publisher.cancelled);
+
+        Collector<ByteBuffer> second = new Collector<>(processor, buffer -> {}, true, 1);
+        processor.subscribe(second);
+        Assertions.assertInstanceOf(IllegalStateException.class, second.error);
+
+        Base65536Processor<ByteBuffer, ByteBuffer> rejecting = encoder.newProcessor();
+        Collector<ByteBuffer> zero = new Collector<>(rejecting, buffer -> {}, true, 0);
+        rejecting.subscribe(zero);
+        new ListPublisher<>(chunks(new byte[4], 1)).subscribe(rejecting);
+        Assertions.assertInstanceOf(IllegalArgumentException.class, zero.error);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> encoder.newProcessor(3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> encoder.newPooledProcessor(3, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> decoder.newPooledCharProcessor(4, 0));
+    }
+}
@@ -0,0 +1,151 @@
+package net.eewbot.base65536j;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+class Base65536ScannerTest {
+    private static final Base65536Encoder encoder = Base65536.getEncoder();
+    private static final Base65536Scanner scanner = Base65536.getScanner();
+
+    private record Run(int start, int end, byte[] decoded) {}
+
+    private static List<Run> scan(Base65536Scanner scanner, String text) {
+        List<Run> runs = new ArrayList<>();
+        int count = scanner.scan(text, (start, end, decoded, length) ->
+            runs.add(new Run(start, end, Arrays.copyOf(decoded, length))));
+        Assertions.assertEquals(runs.size(), count);
+        return runs;
+    }
+
+    private static List<Run> scanUtf8(Base65536Scanner scanner, byte[] text) {
+        List<Run> runs = new ArrayList<>();
+        int count = scanner.scan(text, (start, end, decoded, length) ->
+            runs.add(new Run(start, end, Arrays.copyOf(decoded, length))));
+        Assertions.assertEquals(runs.size(), count);
+        return runs;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 63, 64, 65, 200, 1001})
+    void successEmbeddedRuns(int length) {
+        Random random = new Random(length);
+        byte[] first = new byte[length];
+        byte[] second = new byte[length + 1];
+        random.nextBytes(first);
+        random.nextBytes(second);
+        String encodedFirst = encoder.encodeToString(first);
+        String encodedSecond = encoder.encodeToString(second);
+
+        String prefix = "id: ";
+        String middle = ", \uD83D\uDE00 next=";
+        String text = prefix + encodedFirst + middle + encodedSecond + " end";
+
+        List<Run> runs = scan(scanner, text);
+        List<byte[]> expected = new ArrayList<>();
+        if (length > 0) expected.add(first);
+        expected.add(second);
+        Assertions.assertEquals(expected.size(), runs.size());
+        for (int i = 0; i < expected.size(); i++) Assertions.assertArrayEquals(expected.get(i), runs.get(i).decoded());
+
+        Run last = runs.get(runs.size() - 1);
+        Assertions.assertEquals(encodedSecond, text.substring(last.start(), last.end()));
+        if (length > 0) {
+            Assertions.assertEquals(prefix.length(), runs.get(0).start());
+            Assertions.assertEquals(prefix.length() + encodedFirst.length(), runs.get(0).end());
+        }
+
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        List<Run> utf8Runs = scanUtf8(scanner, utf8);
+        Assertions.assertEquals(runs.size(), utf8Runs.size());
+        for (int i = 0; i < runs.size(); i++) {
+            Run run = utf8Runs.get(i);
+            Assertions.assertArrayEquals(runs.get(i).decoded(), run.decoded());
+            Assertions.assertEquals(
+                text.substring(runs.get(i).start(), runs.get(i).end()),
+                new String(utf8, run.start(), run.end() - run.start(), StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+    @Test
+    void successPaddingEndsRun() {
+        String first = encoder.encodeToString(new byte[]{1, 2, 3});
+        String second = encoder.encodeToString(new byte[]{4, 5});
+        String text = first + second;
+
+        List<Run> runs = scan(scanner, text);
+        Assertions.assertEquals(2, runs.size());
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, runs.get(0).decoded());
+        Assertions.assertEquals(first.length(), runs.get(0).end());
+        Assertions.assertArrayEquals(new byte[]{4, 5}, runs.get(1).decoded());
+        Assertions.assertEquals(first.length(), runs.get(1).start());
+
+        List<Run> utf8Runs = scanUtf8(scanner, text.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(2, utf8Runs.size());
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, utf8Runs.get(0).decoded());
+        Assertions.assertArrayEquals(new byte[]{4, 5}, utf8Runs.get(1).decoded());
+    }
+
+    @Test
+    void successMinimumLength() {
+        String encoded = encoder.encodeToString(new byte[32]);
+        String text = "\u65E5\u672C " + encoded + " \u6771\u4EAC";
+
+        Assertions.assertEquals(3, scan(scanner, text).size());
+
+        Base65536Scanner strict = scanner.withMinimumLength(8);
+        Assertions.assertEquals(8, strict.getMinimumLength());
+        List<Run> runs = scan(strict, text);
+        Assertions.assertEquals(1, runs.size());
+        Assertions.assertArrayEquals(new byte[32], runs.get(0).decoded());
+        Assertions.assertEquals(1, scanUtf8(strict, text.getBytes(StandardCharsets.UTF_8)).size());
+        Assertions.assertSame(strict, strict.withMinimumLength(8));
+    }
+
+    @Test
+    void successRange() {
+        String encoded = encoder.encodeToString(new byte[]{1, 2, 3, 4});
+        String text = "ab" + encoded + "cd";
+
+        List<Run> runs = new ArrayList<>();
+        int count = scanner.scan(text, 3, text.length(), (start, end, decoded, length) ->
+            runs.add(new Run(start, end, Arrays.copyOf(decoded, length))));
+        Assertions.assertEquals(1, count);
+        Assertions.assertEquals(3, runs.get(0).start());
+        Assertions.assertEquals(2 + encoded.length(), runs.get(0).end());
+        Assertions.assertArrayEquals(new byte[]{3, 4}, runs.get(0).decoded());
+    }
+
+    @Test
+    void successMalformedUtf8() {
+        byte[] encoded = encoder.encode(new byte[]{7, 8});
+        byte[] text = new byte[encoded.length + 3];
+        text[0] = (byte) 0xE3;
+        text[1] = (byte) 0x41;
+        System.arraycopy(encoded, 0, text, 2, encoded.length);
+        text[text.length - 1] = (byte) 0xF0;
+
+        List<Run> runs = scanUtf8(scanner, text);
+        Assertions.assertEquals(1, runs.size());
+        Assertions.assertEquals(2, runs.get(0).start());
+        Assertions.assertEquals(2 + encoded.length, runs.get(0).end());
+        Assertions.assertArrayEquals(new byte[]{7, 8}, runs.get(0).decoded());
+    }
+
+    @Test
+    void failScanner() {
+        Base65536Scanner.Sink sink = (start, end, decoded, length) -> {};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> scanner.withMinimumLength(0));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> scanner.scan("abc", 2, 1, sink));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> scanner.scan(new byte[3], 1, 3, sink));
+        Assertions.assertThrows(NullPointerException.class, () -> scanner.scan("abc", null));
+    }
+}
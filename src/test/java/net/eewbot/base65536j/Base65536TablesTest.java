@@ -0,0 +1,44 @@
+package net.eewbot.base65536j;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+class Base65536TablesTest {
+    private static byte[] utf8(int codePoint) {
+        return new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int prefix(byte[] utf8) {
+        int prefix = 0;
+        for (int i = 0; i < utf8.length - 1; i++) prefix = prefix << 8 | Byte.toUnsignedInt(utf8[i]);
+        return prefix;
+    }
+
+    @Test
+    void successTables() {
+        int[] codes = Base65536Tables.Codes.TABLE;
+        Assertions.assertEquals(256, codes.length);
+
+        int blocks = 0;
+        for (short leastByte : Base65536Tables.LeastBytes.TABLE) {
+            if (leastByte != Base65536Decoder.INVALID) blocks++;
+        }
+        Assertions.assertEquals(257, blocks);
+
+        for (int i = 0; i < codes.length; i++) {
+            Assertions.assertEquals(0, codes[i] & 0xFF);
+            if (i > 0) Assertions.assertTrue(codes[i - 1] < codes[i]);
+            Assertions.assertEquals(i, Base65536Decoder.leastByteOf(codes[i]));
+            Assertions.assertEquals(i, Base65536Decoder.leastByteOf(codes[i] + 0xFF));
+
+            byte[] utf8 = utf8(codes[i]);
+            Assertions.assertEquals(i < Base65536Tables.FIRST_SUPPLEMENTARY_INDEX ? 3 : 4, utf8.length);
+            Assertions.assertEquals(prefix(utf8), Base65536Tables.Utf8Prefixes.TABLE[i]);
+        }
+
+        Assertions.assertEquals(Base65536Decoder.PADDING, Base65536Decoder.leastByteOf(Base65536Tables.PAD));
+        Assertions.assertEquals(prefix(utf8(Base65536Tables.PAD)), Base65536Tables.PAD_UTF8_PREFIX);
+    }
+}
@@ -0,0 +1,31 @@
+package net.eewbot.base65536j;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+class CountingKernelTest {
+    private static final CountingKernel scalar = new CountingKernel();
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 31, 32, 33, 63, 64, 65, 127, 1000, 4099})
+    void sameAsScalar(int length) {
+        byte[] src = new byte[length + 3];
+        new Random(length).nextBytes(src);
+        CountingKernel kernel = CountingKernel.INSTANCE;
+
+        for (int off = 0; off <= 3; off++) {
+            int len = Math.min(length, src.length - off);
+            Assertions.assertEquals(
+                    scalar.countPairsAtLeast(src, off, len, Base65536Encoder.FIRST_SUPPLEMENTARY_INDEX),
+                    kernel.countPairsAtLeast(src, off, len, Base65536Encoder.FIRST_SUPPLEMENTARY_INDEX)
+            );
+            Assertions.assertEquals(
+                    scalar.countNonContinuationBytes(src, off, off + len),
+                    kernel.countNonContinuationBytes(src, off, off + len)
+            );
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package net.eewbot.base65536j;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link CountingKernel} compiled against the incubating Vector API, which compares a whole vector of bytes per
+ * instruction and counts the matching lanes. The remaining bytes shorter than a vector are left to the scalar loops.
+ * <br>
+ * It is loaded only when the {@code jdk.incubator.vector} module is resolved.
+ */
+final class VectorCountingKernel extends CountingKernel {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    /**
+     * Selects the odd lanes. The length of a species is an even power of two, so every vector starts at an even
+     * distance from the offset of the range and its odd lanes hold the least significant bytes of the pairs.
+     */
+    private static final VectorMask<Byte> ODD_LANES;
+
+    static {
+        boolean[] oddLanes = new boolean[SPECIES.length()];
+        for (int i = 1; i < oddLanes.length; i += 2) oddLanes[i] = true;
+        ODD_LANES = VectorMask.fromArray(SPECIES, oddLanes, 0);
+    }
+
+    /**
+     * The signed value of a byte with its sign bit flipped orders the same as the unsigned value of the byte.
+     */
+    private static final byte SIGN_BIT = (byte) 0x80;
+
+    /**
+     * Bytes below this signed value are the continuation bytes 0x80 to 0xBF.
+     */
+    private static final byte FIRST_NON_CONTINUATION = (byte) 0xC0;
+
+    @Override
+    int countPairsAtLeast(byte[] src, int off, int len, int threshold) {
+        byte flippedThreshold = (byte) (threshold ^ SIGN_BIT);
+        int count = 0;
+        int i = off;
+
+        for (int bound = off + SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+            count += ByteVector.fromArray(SPECIES, src, i)
+                    .lanewise(VectorOperators.XOR, SIGN_BIT)
+                    .compare(VectorOperators.GE, flippedThreshold, ODD_LANES)
+                    .trueCount();
+        }
+
+        return count + super.countPairsAtLeast(src, i, off + len - i, threshold);
+    }
+
+    @Override
+    int countNonContinuationBytes(byte[] src, int off, int end) {
+        int count = 0;
+        int i = off;
+
+        for (int bound = off + SPECIES.loopBound(end - off); i < bound; i += SPECIES.length()) {
+            count += ByteVector.fromArray(SPECIES, src, i)
+                    .compare(VectorOperators.GE, FIRST_NON_CONTINUATION)
+                    .trueCount();
+        }
+
+        return count + super.countNonContinuationBytes(src, i, end);
+    }
+}